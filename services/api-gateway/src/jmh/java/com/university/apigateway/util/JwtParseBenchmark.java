@@ -0,0 +1,89 @@
+package com.university.apigateway.util;
+
+import com.university.apigateway.model.JwtPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification d'un token par requête, sur un seul thread : ancien chemin du filtre (cinq parsers construits
+ * et cinq signatures vérifiées) contre JwtUtil.parseToken (un parser partagé, une seule vérification).
+ * Le score se lit directement en requêtes par seconde et par cœur.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="JwtParseBenchmark -f 1 -t 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "dGhpc2lzYWpheWF0c2VjcmV0Zm9yaGp3dGhlcmVpc2Fsb25nc3RyaW5nZm9yaG1hY3NoYTI1NmtleQ";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "keyId", "primary");
+        ReflectionTestUtils.setField(jwtUtil, "previousKeys", "");
+        jwtUtil.init();
+        token = Jwts.builder()
+                .header().keyId("primary").and()
+                .subject("alice")
+                .claim("userId", "42")
+                .claim("role", "STUDENT")
+                // Assez long pour toute la durée du benchmark
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+
+    /**
+     * Ancien filtre : validateToken, isTokenExpired puis les trois getters, chacun avec son propre parser
+     */
+    @Benchmark
+    public void fivePasses(Blackhole blackhole) {
+        parseLegacy(token);
+        blackhole.consume(parseLegacy(token).getExpiration().before(new Date()));
+        blackhole.consume(parseLegacy(token).getSubject());
+        blackhole.consume(parseLegacy(token).get("userId", String.class));
+        blackhole.consume(parseLegacy(token).get("role", String.class));
+    }
+
+    @Benchmark
+    public JwtPrincipal singlePass() {
+        return jwtUtil.parseToken(token).orElseThrow();
+    }
+
+    // Comme l'ancien JwtUtil : clé décodée et parser reconstruit à chaque appel
+    private static Claims parseLegacy(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -18,7 +18,7 @@ public class CorsConfig {
         configuration.setAllowedOriginPatterns(List.of("*")); // En production, spécifier les origines exactes
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "ETag", "X-Next-After"));
         configuration.setAllowCredentials(false); // Désactivé car incompatible avec origins "*"
         configuration.setMaxAge(3600L);
 
@@ -0,0 +1,57 @@
+package com.university.apigateway.config;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.AddressUtils;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/**
+ * Construit les pools et clients Reactor Netty à partir des réglages d'un service en aval
+ */
+public final class DownstreamHttpClients {
+
+    private DownstreamHttpClients() {
+    }
+
+    /**
+     * Pool dédié au service, avec métriques Micrometer (reactor.netty.connection.provider.*)
+     */
+    public static ConnectionProvider connectionProvider(String name, OutboundHttpProperties.Downstream downstream) {
+        return applyPool(ConnectionProvider.builder(name), downstream).build();
+    }
+
+    /**
+     * Applique les limites et l'éviction du pool sur un builder global ou spécifique à un hôte
+     */
+    public static <T extends ConnectionProvider.ConnectionPoolSpec<T>> T applyPool(T spec, OutboundHttpProperties.Downstream downstream) {
+        return spec.maxConnections(downstream.getMaxConnections())
+                .pendingAcquireTimeout(downstream.getPendingAcquireTimeout())
+                .maxIdleTime(downstream.getMaxIdleTime())
+                .maxLifeTime(downstream.getMaxLifeTime())
+                .evictInBackground(downstream.getEvictionInterval())
+                .metrics(true);
+    }
+
+    public static HttpClient httpClient(ConnectionProvider provider, OutboundHttpProperties.Downstream downstream) {
+        return HttpClient.create(provider)
+                .protocol(downstream.getProtocol())
+                .keepAlive(downstream.isKeepAlive())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) downstream.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, downstream.isKeepAlive())
+                // Délai entre deux lectures de chaque réponse, posé par requête (un handler ajouté à la
+                // connexion serait retiré dès son retour au pool)
+                .responseTimeout(downstream.getResponseTimeout());
+    }
+
+    /**
+     * Adresse non résolue de l'hôte, telle que Reactor Netty l'utilise comme clé de pool
+     */
+    public static InetSocketAddress remoteAddress(String url) {
+        URI uri = URI.create(url);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+        return AddressUtils.createUnresolved(uri.getHost(), port);
+    }
+}
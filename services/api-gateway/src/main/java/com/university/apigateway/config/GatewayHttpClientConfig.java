@@ -0,0 +1,57 @@
+package com.university.apigateway.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Le client HTTP des routes de la passerelle garde un pool par service en aval,
+ * avec les limites de services.* au lieu de celles, globales, de spring.cloud.gateway.httpclient.pool
+ */
+@Configuration
+@Slf4j
+public class GatewayHttpClientConfig {
+
+    @Bean
+    public HttpClientFactory gatewayHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                                      List<HttpClientCustomizer> customizers,
+                                                      HttpClientSslConfigurer sslConfigurer,
+                                                      OutboundHttpProperties outbound) {
+        Map<String, OutboundHttpProperties.Downstream> downstreams = Map.of(
+                "student-service", outbound.getStudent(),
+                "course-service", outbound.getCourse(),
+                "auth-service", outbound.getAuth());
+
+        return new HttpClientFactory(properties, serverProperties, sslConfigurer, customizers) {
+            @Override
+            protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+                ConnectionProvider provider = super.buildConnectionProvider(properties);
+                ConnectionProvider.Builder builder = provider.mutate();
+                if (builder == null) {
+                    // Pool désactivé (type DISABLED) : rien à spécialiser
+                    return provider;
+                }
+                builder.metrics(true);
+                downstreams.forEach((name, downstream) -> {
+                    if (StringUtils.hasText(downstream.getUrl())) {
+                        builder.forRemoteHost(DownstreamHttpClients.remoteAddress(downstream.getUrl()),
+                                spec -> DownstreamHttpClients.applyPool(spec, downstream));
+                        log.info("Pool de connexions dédié pour {} ({})", name, downstream.getUrl());
+                    }
+                });
+                provider.dispose();
+                return builder.build();
+            }
+        };
+    }
+}
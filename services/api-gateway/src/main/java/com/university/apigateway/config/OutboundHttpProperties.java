@@ -0,0 +1,58 @@
+package com.university.apigateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+
+/**
+ * Réglages des connexions sortantes, un bloc par service en aval (services.student, services.course, services.auth)
+ */
+@Data
+@ConfigurationProperties(prefix = "services")
+public class OutboundHttpProperties {
+
+    private Downstream student = new Downstream();
+    private Downstream course = new Downstream();
+    private Downstream auth = new Downstream();
+
+    @Data
+    public static class Downstream {
+
+        private String url;
+
+        /** Connexions simultanées maximum vers ce service */
+        private int maxConnections = 50;
+
+        /** Attente maximum d'une connexion libre quand le pool est saturé */
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+        /** Une connexion inactive au-delà de cette durée est fermée */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        /** Durée de vie maximum d'une connexion, même active */
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        /** Période de l'éviction en tâche de fond des connexions inactives ou expirées */
+        private Duration evictionInterval = Duration.ofSeconds(30);
+
+        /** En millisecondes dans le YAML : la même valeur est reprise dans les metadata des routes */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /** Délai maximum entre deux lectures d'une réponse, pour chaque requête */
+        private Duration responseTimeout = Duration.ofSeconds(5);
+
+        private boolean keepAlive = true;
+
+        /**
+         * Taille maximum d'une réponse lue en mémoire par les WebClient (256 Ko par défaut dans Spring,
+         * trop peu pour getCours sur un catalogue complet)
+         */
+        private DataSize maxInMemorySize = DataSize.ofMegabytes(16);
+
+        /** HTTP11, ou H2C si le service accepte HTTP/2 en clair */
+        private HttpProtocol protocol = HttpProtocol.HTTP11;
+    }
+}
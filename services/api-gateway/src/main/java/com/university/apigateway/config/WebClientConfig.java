@@ -0,0 +1,30 @@
+package com.university.apigateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+@EnableConfigurationProperties(OutboundHttpProperties.class)
+public class WebClientConfig {
+
+    /**
+     * Client HTTP non bloquant et mutualisé vers le service SOAP des cours
+     */
+    @Bean
+    public WebClient courseWebClient(WebClient.Builder builder, OutboundHttpProperties properties) {
+        return pooledWebClient(builder, "course-service", properties.getCourse());
+    }
+
+    private WebClient pooledWebClient(WebClient.Builder builder, String name, OutboundHttpProperties.Downstream downstream) {
+        ConnectionProvider provider = DownstreamHttpClients.connectionProvider(name, downstream);
+        return builder.clone()
+                .baseUrl(downstream.getUrl())
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) downstream.getMaxInMemorySize().toBytes()))
+                .clientConnector(new ReactorClientHttpConnector(DownstreamHttpClients.httpClient(provider, downstream)))
+                .build();
+    }
+}
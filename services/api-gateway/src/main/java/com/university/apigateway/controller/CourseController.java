@@ -4,80 +4,246 @@ import com.university.apigateway.model.Course;
 import com.university.apigateway.model.CourseResponse;
 import com.university.apigateway.model.Cours;
 import com.university.apigateway.model.CreateCourseRequest;
+import com.university.apigateway.model.Creneau;
 import com.university.apigateway.model.UpdateCourseRequest;
+import com.university.apigateway.model.CoursImportResult;
+import com.university.apigateway.service.CourseImportService;
 import com.university.apigateway.service.CourseServiceClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/courses")
 public class CourseController {
 
+    private static final String NEXT_AFTER_HEADER = "X-Next-After";
+    private static final String TEXT_CSV = "text/csv";
+    private static final Pattern HEURE = Pattern.compile("\\d{1,2}:\\d{2}");
+    // Formats produits par convertToCourseResponse : "COURSE12" et "Lundi 08:30-10:00"
+    private static final Pattern CODE = Pattern.compile("(?:COURSE)?(\\d{1,9})");
+    private static final Pattern SCHEDULE = Pattern.compile("(\\S+)\\s+(\\d{1,2}:\\d{2})\\s*-\\s*(\\d{1,2}:\\d{2})");
+
+    // Découpe le corps en lignes au fil de la lecture, sans le charger en entier
+    private static final StringDecoder LINES = StringDecoder.allMimeTypes(List.of("\n"), true);
+
     @Autowired
     private CourseServiceClient courseServiceClient;
 
+    @Autowired
+    private CourseImportService courseImportService;
+
     @GetMapping
-    public ResponseEntity<List<CourseResponse>> getAllCourses() {
-        List<Cours> coursList = courseServiceClient.getAllCourses();
-        List<CourseResponse> courses = coursList.stream()
-                .map(this::convertToCourseResponse)
-                .collect(Collectors.toList());
-        // TODO: Remove this mock data once SOAP integration is complete
-        if (courses.isEmpty()) {
-            courses = Arrays.asList(
-                    new CourseResponse("1", "MATH101", "Mathematics", "Introduction to Mathematics", 3, "Dr. Smith",
-                            "Mon/Wed 9:00-10:30", 30, 25, "Fall 2024", "ACTIVE"),
-                    new CourseResponse("2", "PHYS101", "Physics", "Introduction to Physics", 4, "Dr. Johnson",
-                            "Tue/Thu 11:00-12:30", 25, 20, "Fall 2024", "ACTIVE"));
+    public Mono<ResponseEntity<List<CourseResponse>>> getAllCourses() {
+        return courseServiceClient.getAllCourses()
+                .map(coursList -> coursList.stream()
+                        .map(this::convertToCourseResponse)
+                        .collect(Collectors.toList()))
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(errorStatus(e)).build()));
+    }
+
+    /**
+     * Pagination par curseur : ?size=20, puis after = valeur de l'en-tête X-Next-After tant qu'il est présent
+     */
+    @GetMapping(params = "size", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<CourseResponse>>> getCoursesPage(@RequestParam int size,
+                                                                     @RequestParam(required = false) Integer after) {
+        return courseServiceClient.getCoursPage(after, size)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.getNextAfterId() != null) {
+                        response.header(NEXT_AFTER_HEADER, String.valueOf(page.getNextAfterId()));
+                    }
+                    return response.body(page.getCours().stream()
+                            .map(this::convertToCourseResponse)
+                            .collect(Collectors.toList()));
+                })
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(errorStatus(e)).build()));
+    }
+
+    /**
+     * Catalogue complet en NDJSON (Accept: application/x-ndjson), écrit au fil des pages
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CourseResponse> streamCourses(@RequestParam(defaultValue = "100") int size) {
+        return courseServiceClient.streamAllCourses(size)
+                .map(this::convertToCourseResponse);
+    }
+
+    /**
+     * Import en flux d'un fichier CSV (en-tête facultatif) ou NDJSON : un résultat NDJSON par ligne
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CoursImportResult> importCourses(ServerHttpRequest request) {
+        MediaType contentType = request.getHeaders().getContentType();
+        boolean csv = contentType != null && "csv".equals(contentType.getSubtype());
+        Flux<String> lines = LINES.decode(request.getBody(), ResolvableType.forClass(String.class), contentType, null);
+        return courseImportService.importLines(lines, csv);
+    }
+
+    /**
+     * Export du catalogue dans le format d'import (Accept: text/csv ou application/x-ndjson)
+     */
+    @GetMapping(value = "/export", produces = TEXT_CSV)
+    public Flux<String> exportCsv() {
+        return courseImportService.exportCsv();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Cours> exportNdjson() {
+        return courseImportService.exportNdjson();
+    }
+
+    /**
+     * Salles libres sur toute la plage : /availability/rooms?jour=Mardi&debut=10:00&fin=12:00
+     */
+    @GetMapping("/availability/rooms")
+    public Mono<ResponseEntity<List<String>>> getFreeRooms(@RequestParam String jour, @RequestParam String debut,
+                                                           @RequestParam String fin) {
+        if (!isHeure(debut) || !isHeure(fin)) {
+            return Mono.just(ResponseEntity.badRequest().build());
         }
-        return ResponseEntity.ok(courses);
+        return courseServiceClient.getFreeRooms(jour, debut, fin)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(errorStatus(e)).build()));
+    }
+
+    @GetMapping("/availability/professors")
+    public Mono<ResponseEntity<List<String>>> getFreeProfessors(@RequestParam String jour, @RequestParam String debut,
+                                                                @RequestParam String fin) {
+        if (!isHeure(debut) || !isHeure(fin)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return courseServiceClient.getFreeProfessors(jour, debut, fin)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(errorStatus(e)).build()));
+    }
+
+    /**
+     * Plages libres d'une salle et/ou d'un professeur, sur la journée ou entre debut et fin
+     */
+    @GetMapping("/availability/slots")
+    public Mono<ResponseEntity<List<Creneau>>> getFreeSlots(@RequestParam String jour,
+                                                            @RequestParam(required = false) String salle,
+                                                            @RequestParam(required = false) String professeur,
+                                                            @RequestParam(required = false) String debut,
+                                                            @RequestParam(required = false) String fin) {
+        if ((debut != null && !isHeure(debut)) || (fin != null && !isHeure(fin))) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return courseServiceClient.getFreeSlots(jour, salle, professeur, debut, fin)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(errorStatus(e)).build()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CourseResponse> getCourseById(@PathVariable String id) {
+    public Mono<ResponseEntity<CourseResponse>> getCourseById(@PathVariable String id) {
+        int courseId;
         try {
-            int courseId = Integer.parseInt(id);
-            Cours cours = courseServiceClient.getCourseById(courseId);
-            if (cours == null) {
-                return ResponseEntity.notFound().build();
-            }
-            return ResponseEntity.ok(convertToCourseResponse(cours));
+            courseId = Integer.parseInt(id);
         } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
+            return Mono.just(ResponseEntity.badRequest().build());
         }
+        return courseServiceClient.getCourseById(courseId)
+                .map(cours -> ResponseEntity.ok(convertToCourseResponse(cours)))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(errorStatus(e)).build()));
     }
 
+    /**
+     * Création via ajouterCours : code "COURSE12" ou "12" pour idCours, schedule "Lundi 08:30-10:00".
+     * 201 si le cours est inséré, 409 si l'id existe déjà ou si la salle / le professeur est pris sur le créneau.
+     */
     @PostMapping
-    public ResponseEntity<String> addCourse(@RequestBody CreateCourseRequest courseRequest) {
-        // For now, just return success since SOAP integration is pending
-        // TODO: Implement actual course creation via SOAP service
-        return ResponseEntity.ok("Course added successfully");
+    public Mono<ResponseEntity<CourseResponse>> addCourse(@RequestBody CreateCourseRequest courseRequest) {
+        Course course = toCourse(courseRequest);
+        if (course == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return courseServiceClient.addCourse(course)
+                .map(inserted -> inserted
+                        ? ResponseEntity.status(HttpStatus.CREATED).body(convertToCourseResponse(toCours(course)))
+                        : ResponseEntity.status(HttpStatus.CONFLICT).<CourseResponse>build())
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(errorStatus(e)).build()));
     }
 
+    /**
+     * course-service n'expose pas de modification : supprimer puis recréer le cours
+     */
     @PutMapping("/{id}")
     public ResponseEntity<String> updateCourse(@PathVariable String id, @RequestBody UpdateCourseRequest course) {
-        // For now, just return success since SOAP integration is pending
-        // TODO: Implement actual course update via SOAP service
-        return ResponseEntity.ok("Course updated successfully");
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
+                .body("Course update is not supported by course-service; delete and re-create the course");
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteCourse(@PathVariable String id) {
+    public Mono<ResponseEntity<String>> deleteCourse(@PathVariable String id) {
+        int courseId;
         try {
-            boolean success = courseServiceClient.deleteCourse(Integer.parseInt(id));
-            if (success) {
-                return ResponseEntity.ok("Course deleted successfully");
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error deleting course: " + e.getMessage());
+            courseId = Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            return Mono.just(ResponseEntity.badRequest().body("Error deleting course: invalid id " + id));
+        }
+        return courseServiceClient.deleteCourse(courseId)
+                .map(success -> success
+                        ? ResponseEntity.ok("Course deleted successfully")
+                        : ResponseEntity.status(HttpStatus.NOT_FOUND).<String>build())
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(errorStatus(e)).body("Error deleting course: " + e.getMessage())));
+    }
+
+    /**
+     * 503 quand l'appel a été rejeté sans être tenté (circuit ouvert, bulkhead saturé), 502 sinon
+     */
+    private HttpStatus errorStatus(Throwable e) {
+        return CourseServiceClient.isRejected(e) ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_GATEWAY;
+    }
+
+    private static boolean isHeure(String value) {
+        return HEURE.matcher(value).matches();
+    }
+
+    /**
+     * Cours SOAP décrit par la requête du frontend, null si code ou schedule ne sont pas reconnus
+     */
+    private static Course toCourse(CreateCourseRequest request) {
+        Matcher code = request.getCode() == null ? null : CODE.matcher(request.getCode().trim());
+        Matcher schedule = request.getSchedule() == null ? null : SCHEDULE.matcher(request.getSchedule().trim());
+        if (code == null || !code.matches() || schedule == null || !schedule.matches()) {
+            return null;
         }
+        Course course = new Course();
+        course.setIdCours(Integer.parseInt(code.group(1)));
+        course.setNomCours(request.getName());
+        course.setProfesseur(request.getInstructor());
+        course.setJour(schedule.group(1));
+        course.setHeureDebut(schedule.group(2));
+        course.setHeureFin(schedule.group(3));
+        return course;
+    }
+
+    private static Cours toCours(Course course) {
+        Cours cours = new Cours();
+        cours.setIdCours(course.getIdCours());
+        cours.setNomCours(course.getNomCours());
+        cours.setProfesseur(course.getProfesseur());
+        cours.setJour(course.getJour());
+        cours.setHeureDebut(course.getHeureDebut());
+        cours.setHeureFin(course.getHeureFin());
+        return cours;
     }
 
     private CourseResponse convertToCourseResponse(Cours cours) {
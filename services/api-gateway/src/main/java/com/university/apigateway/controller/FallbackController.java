@@ -0,0 +1,36 @@
+package com.university.apigateway.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Réponses de repli des routes quand le circuit breaker est ouvert ou que le service ne répond pas
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    @Value("${services.student.fallback-body:[]}")
+    private String studentFallbackBody;
+
+    @GetMapping("/students")
+    public ResponseEntity<String> studentsFallback() {
+        // Return empty list if service is not available
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(studentFallbackBody);
+    }
+
+    /**
+     * Les écritures n'ont pas de repli : le client doit savoir que rien n'a été enregistré
+     */
+    @RequestMapping("/students")
+    public ResponseEntity<String> studentsUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
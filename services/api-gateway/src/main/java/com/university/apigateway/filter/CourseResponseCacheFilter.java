@@ -0,0 +1,188 @@
+package com.university.apigateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.CorsUtils;
+import org.springframework.web.cors.reactive.DefaultCorsProcessor;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache des réponses JSON de /api/courses/** avec ETag fort et GET conditionnel.
+ *
+ * La clé est chemin + requête + Accept. Un If-None-Match qui correspond à l'entrée en cache reçoit un 304
+ * sans appel à course-service. Toute écriture de la passerelle sur /api/courses vide le cache ; les
+ * modifications faites directement sur course-service ne sont vues qu'à l'expiration (services.course.cache.ttl).
+ * Les flux (NDJSON, CSV) ne passent pas par le cache ; les corps de plus de max-body-bytes reçoivent
+ * un ETag mais ne sont pas gardés.
+ */
+@Component
+public class CourseResponseCacheFilter implements WebFilter, Ordered {
+
+    private static final String PATH_PREFIX = "/api/courses";
+    private static final String NEXT_AFTER_HEADER = "X-Next-After";
+
+    private final boolean enabled;
+    private final int maxBodyBytes;
+    private final Cache<String, CachedResponse> cache;
+    private final CorsConfigurationSource corsConfigurationSource;
+    private final DefaultCorsProcessor corsProcessor = new DefaultCorsProcessor();
+    // Incrémenté par chaque écriture : une lecture commencée avant ne remet pas en cache une réponse périmée
+    private final AtomicLong generation = new AtomicLong();
+
+    public CourseResponseCacheFilter(MeterRegistry meterRegistry,
+                                     CorsConfigurationSource corsConfigurationSource,
+                                     @Value("${services.course.cache.enabled:true}") boolean enabled,
+                                     @Value("${services.course.cache.max-size:1000}") long maxSize,
+                                     @Value("${services.course.cache.max-body-bytes:1048576}") int maxBodyBytes,
+                                     @Value("${services.course.cache.ttl:30s}") Duration ttl) {
+        this.enabled = enabled;
+        this.maxBodyBytes = maxBodyBytes;
+        this.corsConfigurationSource = corsConfigurationSource;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.course-responses");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!enabled || !request.getPath().value().startsWith(PATH_PREFIX) || CorsUtils.isPreFlightRequest(request)) {
+            return chain.filter(exchange);
+        }
+        if (request.getMethod() != HttpMethod.GET) {
+            // Vidé avant l'écriture, avant l'envoi de sa réponse (un client qui relit après la réponse ne voit
+            // pas l'ancienne entrée) et à la fin : un import NDJSON répond dès le premier lot, une lecture faite
+            // pendant les lots suivants ne reste pas en cache
+            invalidate();
+            exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(this::invalidate));
+            return chain.filter(exchange).doFinally(signal -> invalidate());
+        }
+
+        String key = key(request);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null && corsProcessor.process(corsConfigurationSource.getCorsConfiguration(exchange), exchange)) {
+            return write(exchange.getResponse(), cached, notModified(request, cached.etag()));
+        }
+        long startGeneration = generation.get();
+        return chain.filter(exchange.mutate().response(new CachingResponse(exchange, key, startGeneration)).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, CachedResponse cached, boolean notModified) {
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.setCacheControl("no-cache");
+        if (cached.nextAfter() != null) {
+            headers.set(NEXT_AFTER_HEADER, cached.nextAfter());
+        }
+        if (notModified) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentType(cached.contentType());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean notModified(ServerHttpRequest request, String etag) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        return ifNoneMatch.contains(etag) || ifNoneMatch.contains("*");
+    }
+
+    private static String key(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        return request.getPath().value() + (query == null ? "" : "?" + query) + "|" + (accept == null ? "" : accept);
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return "\"" + HexFormat.of().formatHex(sha256.digest(body)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    /**
+     * Garde une copie des réponses JSON 200 et leur ajoute l'ETag ; les autres réponses passent telles quelles
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+        private final String key;
+        private final long startGeneration;
+
+        CachingResponse(ServerWebExchange exchange, String key, long startGeneration) {
+            super(exchange.getResponse());
+            this.request = exchange.getRequest();
+            this.key = key;
+            this.startGeneration = startGeneration;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            MediaType contentType = getHeaders().getContentType();
+            HttpStatus status = getStatusCode() == null ? HttpStatus.OK : HttpStatus.resolve(getStatusCode().value());
+            if (status != HttpStatus.OK || contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+                return super.writeWith(body);
+            }
+            // Le corps JSON arrive déjà en un seul bloc depuis l'encodeur : le joindre ne coûte pas de copie en plus
+            return DataBufferUtils.join(body)
+                    .flatMap(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+
+                        CachedResponse cached = new CachedResponse(bytes, contentType, etag(bytes),
+                                getHeaders().getFirst(NEXT_AFTER_HEADER));
+                        if (bytes.length <= maxBodyBytes && generation.get() == startGeneration) {
+                            cache.put(key, cached);
+                        }
+                        return write(getDelegate(), cached, notModified(request, cached.etag()));
+                    });
+        }
+    }
+
+    private record CachedResponse(byte[] body, MediaType contentType, String etag, String nextAfter) {
+    }
+}
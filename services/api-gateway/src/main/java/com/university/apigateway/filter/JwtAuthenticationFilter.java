@@ -1,10 +1,12 @@
 package com.university.apigateway.filter;
 
-import com.university.apigateway.util.JwtUtil;
+import com.university.apigateway.model.JwtPrincipal;
+import com.university.apigateway.util.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -12,12 +14,14 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.Optional;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
-    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -30,23 +34,22 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
         String token = getTokenFromRequest(exchange);
 
-        if (!StringUtils.hasText(token) || !jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
+        // Une seule vérification de signature par token, les suivantes sont servies par le cache
+        Optional<JwtPrincipal> principal = StringUtils.hasText(token) ? verifiedTokenCache.verify(token) : Optional.empty();
+        if (principal.isEmpty()) {
             log.warn("Invalid or missing JWT token for path: {}", path);
             exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
             return exchange.getResponse().setComplete();
         }
 
-        // Extract user info and add to headers
-        String username = jwtUtil.getUsernameFromToken(token);
-        String userId = jwtUtil.getUserIdFromToken(token);
-        String role = jwtUtil.getRoleFromToken(token);
+        String username = principal.get().getSubject();
 
         // Add user info to request headers for downstream services
         ServerWebExchange modifiedExchange = exchange.mutate()
                 .request(exchange.getRequest().mutate()
-                        .header("X-User-Id", userId)
+                        .header("X-User-Id", principal.get().getUserId())
                         .header("X-User-Username", username)
-                        .header("X-User-Role", role)
+                        .header("X-User-Role", principal.get().getRole())
                         .build())
                 .build();
 
@@ -56,7 +59,8 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
     @Override
     public int getOrder() {
-        return -1; // High priority
+        // Avant SingleFlight : seule une requête authentifiée peut rejoindre un appel partagé
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
     }
 
     private String getTokenFromRequest(ServerWebExchange exchange) {
@@ -0,0 +1,205 @@
+package com.university.apigateway.filter;
+
+import com.university.apigateway.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Regroupe les GET identiques simultanés d'une route (filtre "SingleFlight=nom") : une seule requête part
+ * vers le service, sa réponse (statut, en-têtes, corps) est recopiée pour chaque requête en attente.
+ *
+ * La clé est méthode + chemin + requête, plus les valeurs des en-têtes listés dans keyHeaders
+ * (par exemple Accept si le service négocie le format). Authorization et l'identité de l'utilisateur
+ * n'en font pas partie : un follower reçoit la réponse obtenue pour le leader. À n'utiliser que sur des
+ * routes dont la réponse est la même pour tout utilisateur autorisé (JwtAuthenticationFilter rejette
+ * les requêtes sans token valide avant ce filtre), sinon ajouter Authorization à keyHeaders.
+ *
+ * Le corps n'est gardé en mémoire que si des followers attendent, et seulement jusqu'à maxBodyBytes :
+ * sans follower au début de la réponse, ou au-delà de cette taille, le leader transmet sa réponse en flux
+ * et les followers refont chacun leur appel. Exécuté avant CircuitBreaker et Bulkhead :
+ * les requêtes regroupées ne consomment pas de place dans le bulkhead.
+ */
+@Component
+public class SingleFlightGatewayFilterFactory extends AbstractGatewayFilterFactory<SingleFlightGatewayFilterFactory.Config> {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, SingleFlight<String, CapturedResponse>> flights = new ConcurrentHashMap<>();
+
+    public SingleFlightGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Une instance par nom : plusieurs routes d'un même service partagent le compteur
+        SingleFlight<String, CapturedResponse> flight =
+                flights.computeIfAbsent(config.getName(), name -> new SingleFlight<>(name, meterRegistry));
+        GatewayFilter filter = (exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            AtomicBoolean leader = new AtomicBoolean();
+            return flight.execute(key(exchange.getRequest(), config.getKeyHeaders()), current -> {
+                        leader.set(true);
+                        CapturingResponse capturing = new CapturingResponse(exchange.getResponse(), current,
+                                config.getMaxBodyBytes());
+                        return chain.filter(exchange.mutate().response(capturing).build())
+                                .then(Mono.fromSupplier(capturing::captured));
+                    })
+                    .flatMap(captured -> {
+                        if (!captured.streamed()) {
+                            return captured.writeTo(exchange.getResponse());
+                        }
+                        // Réponse déjà transmise au client du leader : chaque follower fait son propre appel
+                        return leader.get() ? Mono.empty() : chain.filter(exchange);
+                    });
+        };
+        // Juste avant NettyWriteResponseFilter, qui écrit le corps proxifié dans la réponse qu'il reçoit :
+        // il doit recevoir la réponse de capture (JwtAuthenticationFilter passe encore avant)
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private static String key(ServerHttpRequest request, List<String> keyHeaders) {
+        StringBuilder key = new StringBuilder(request.getMethod().name()).append(' ').append(request.getPath().value());
+        String query = request.getURI().getRawQuery();
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        for (String header : keyHeaders) {
+            key.append('|').append(header).append('=').append(request.getHeaders().getOrEmpty(header));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Réponse du leader, gardée en mémoire le temps de la recopier aux requêtes regroupées.
+     * streamed : la réponse a été écrite directement pour le leader, rien n'est à recopier.
+     */
+    private record CapturedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, boolean streamed) {
+
+        static final CapturedResponse STREAMED = new CapturedResponse(null, null, null, true);
+
+        Mono<Void> writeTo(ServerHttpResponse response) {
+            response.setStatusCode(status);
+            // Les en-têtes CORS et Vary sont propres à chaque requête (Origin)
+            headers.forEach((name, values) -> {
+                if (!name.regionMatches(true, 0, "Access-Control-", 0, 15) && !HttpHeaders.VARY.equalsIgnoreCase(name)) {
+                    response.getHeaders().put(name, values);
+                }
+            });
+            if (body == null) {
+                return response.setComplete();
+            }
+            return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+        }
+    }
+
+    /**
+     * Garde le corps pour que writeTo l'envoie à chaque requête quand des followers attendent ;
+     * sinon, ou au-delà de maxBodyBytes, écrit directement vers le client du leader
+     */
+    private static class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final SingleFlight<String, CapturedResponse>.Flight flight;
+        private final int maxBodyBytes;
+        private byte[] body;
+        private boolean streamed;
+
+        CapturingResponse(ServerHttpResponse delegate, SingleFlight<String, CapturedResponse>.Flight flight,
+                          int maxBodyBytes) {
+            super(delegate);
+            this.flight = flight;
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (flight.detachIfAlone()) {
+                streamed = true;
+                return super.writeWith(body);
+            }
+            // Blocs accumulés jusqu'à dépasser maxBodyBytes : le premier lot contient tout le corps s'il tient
+            // dans la limite, sinon son début, suivi du reste bloc par bloc
+            AtomicLong size = new AtomicLong();
+            return Flux.<DataBuffer>from(body)
+                    .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxBodyBytes)
+                    .switchOnFirst((first, batches) -> {
+                        if (size.get() > maxBodyBytes) {
+                            streamed = true;
+                            return super.writeWith(batches.concatMapIterable(batch -> batch));
+                        }
+                        if (!first.hasValue()) {
+                            return Mono.empty();
+                        }
+                        this.body = new byte[(int) size.get()];
+                        int offset = 0;
+                        for (DataBuffer buffer : first.get()) {
+                            int length = buffer.readableByteCount();
+                            buffer.read(this.body, offset, length);
+                            offset += length;
+                            DataBufferUtils.release(buffer);
+                        }
+                        return Mono.empty();
+                    })
+                    .then();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).concatMap(Flux::from));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return streamed ? super.setComplete() : Mono.empty();
+        }
+
+        CapturedResponse captured() {
+            if (streamed) {
+                return CapturedResponse.STREAMED;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(getHeaders());
+            HttpStatusCode status = getStatusCode();
+            return new CapturedResponse(status, headers, body, false);
+        }
+    }
+
+    @Data
+    public static class Config {
+        private String name;
+        private List<String> keyHeaders = new ArrayList<>();
+        // Au-delà, la réponse est transmise en flux au leader et les followers refont leur appel
+        private int maxBodyBytes = 1024 * 1024;
+    }
+}
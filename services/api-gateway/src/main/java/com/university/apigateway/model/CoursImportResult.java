@@ -0,0 +1,18 @@
+package com.university.apigateway.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat d'une ligne du fichier importé. idCours est null si la ligne n'a pas pu être lue.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoursImportResult {
+    private long line;
+    private Integer idCours;
+    private boolean imported;
+    private String error;
+}
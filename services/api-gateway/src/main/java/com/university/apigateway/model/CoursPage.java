@@ -0,0 +1,36 @@
+package com.university.apigateway.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page de cours renvoyée par getCoursPage. nextAfterId est null sur la dernière page.
+ */
+public class CoursPage {
+    private List<Cours> cours = new ArrayList<>();
+    private Integer nextAfterId;
+
+    public CoursPage() {
+    }
+
+    public CoursPage(List<Cours> cours, Integer nextAfterId) {
+        this.cours = cours;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<Cours> getCours() {
+        return cours;
+    }
+
+    public void setCours(List<Cours> cours) {
+        this.cours = cours;
+    }
+
+    public Integer getNextAfterId() {
+        return nextAfterId;
+    }
+
+    public void setNextAfterId(Integer nextAfterId) {
+        this.nextAfterId = nextAfterId;
+    }
+}
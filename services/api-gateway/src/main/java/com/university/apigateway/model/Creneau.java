@@ -0,0 +1,16 @@
+package com.university.apigateway.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Plage horaire libre renvoyée par getCreneauxLibres, heureFin exclue
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Creneau {
+    private String heureDebut;
+    private String heureFin;
+}
@@ -0,0 +1,24 @@
+package com.university.apigateway.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Date;
+
+/**
+ * Informations utilisateur extraites d'un token JWT vérifié
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class JwtPrincipal {
+    private final String subject;
+    private final String userId;
+    private final String role;
+    private final Date expiration;
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
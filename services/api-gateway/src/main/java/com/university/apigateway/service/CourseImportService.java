@@ -0,0 +1,115 @@
+package com.university.apigateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.university.apigateway.model.Cours;
+import com.university.apigateway.model.CoursImportResult;
+import com.university.apigateway.util.CoursCsv;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Import et export du catalogue en CSV ou NDJSON.
+ * Les lignes sont traitées en flux par lots de services.course.batch-size : un seul lot est en mémoire à la fois.
+ */
+@Service
+@Slf4j
+public class CourseImportService {
+
+    private final CourseServiceClient courseServiceClient;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public CourseImportService(CourseServiceClient courseServiceClient, ObjectMapper objectMapper,
+                               @Value("${services.course.batch-size:500}") int batchSize) {
+        this.courseServiceClient = courseServiceClient;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param lines lignes du fichier, dans l'ordre ; l'en-tête CSV éventuel est ignoré
+     * @return un résultat par ligne non vide, dans l'ordre du fichier
+     */
+    public Flux<CoursImportResult> importLines(Flux<String> lines, boolean csv) {
+        return lines.index()
+                .filter(line -> !line.getT2().isBlank())
+                .filter(line -> !(csv && line.getT1() == 0 && CoursCsv.isHeader(line.getT2())))
+                .map(line -> parse(line.getT1() + 1, line.getT2().strip(), csv))
+                .buffer(batchSize)
+                // Lots envoyés l'un après l'autre : le fichier n'est lu qu'au rythme de course-service
+                .concatMap(this::importBatch);
+    }
+
+    public Flux<String> exportCsv() {
+        return Flux.concat(Flux.just(CoursCsv.HEADER + "\n"),
+                courseServiceClient.streamAllCourses(batchSize).map(cours -> CoursCsv.format(cours) + "\n"));
+    }
+
+    public Flux<Cours> exportNdjson() {
+        return courseServiceClient.streamAllCourses(batchSize);
+    }
+
+    private ParsedLine parse(long line, String text, boolean csv) {
+        try {
+            Cours cours = csv ? CoursCsv.parse(text) : objectMapper.readValue(text, Cours.class);
+            if (cours.getIdCours() <= 0) {
+                return new ParsedLine(line, null, "idCours manquant");
+            }
+            return new ParsedLine(line, cours, null);
+        } catch (Exception e) {
+            return new ParsedLine(line, null, "ligne illisible : " + e.getMessage());
+        }
+    }
+
+    private Flux<CoursImportResult> importBatch(List<ParsedLine> batch) {
+        List<Cours> valid = new ArrayList<>(batch.size());
+        for (ParsedLine line : batch) {
+            if (line.cours() != null) {
+                valid.add(line.cours());
+            }
+        }
+        if (valid.isEmpty()) {
+            return Flux.fromIterable(results(batch, List.of(), null));
+        }
+        return courseServiceClient.addCoursesBatch(valid)
+                .map(inserted -> results(batch, inserted, null))
+                .onErrorResume(e -> {
+                    log.warn("Lot de {} cours non importé : {}", valid.size(), e.getMessage());
+                    return Mono.just(results(batch, List.of(), e.getMessage()));
+                })
+                .flatMapIterable(results -> results);
+    }
+
+    /**
+     * Associe les résultats du service (un par cours valide, dans l'ordre) aux lignes du lot
+     */
+    private List<CoursImportResult> results(List<ParsedLine> batch, List<Boolean> inserted, String batchError) {
+        List<CoursImportResult> results = new ArrayList<>(batch.size());
+        int next = 0;
+        for (ParsedLine line : batch) {
+            if (line.cours() == null) {
+                results.add(new CoursImportResult(line.line(), null, false, line.error()));
+                continue;
+            }
+            int idCours = line.cours().getIdCours();
+            if (batchError != null) {
+                results.add(new CoursImportResult(line.line(), idCours, false, batchError));
+            } else if (next < inserted.size() && inserted.get(next)) {
+                results.add(new CoursImportResult(line.line(), idCours, true, null));
+            } else {
+                results.add(new CoursImportResult(line.line(), idCours, false, "idCours déjà utilisé"));
+            }
+            next++;
+        }
+        return results;
+    }
+
+    private record ParsedLine(long line, Cours cours, String error) {
+    }
+}
@@ -2,64 +2,403 @@ package com.university.apigateway.service;
 
 import com.university.apigateway.model.Course;
 import com.university.apigateway.model.Cours;
+import com.university.apigateway.model.CoursPage;
+import com.university.apigateway.model.Creneau;
+import com.university.apigateway.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Client du service SOAP des cours (JAX-WS, document/literal).
+ * Les enveloppes sont écrites à la main et les réponses lues en flux avec StAX, sans DOM.
+ */
 @Service
+@Slf4j
 public class CourseServiceClient {
 
-    private final RestTemplate restTemplate;
+    private static final String NAMESPACE = "http://university.com/";
+    private static final MediaType SOAP_XML = new MediaType("text", "xml", StandardCharsets.UTF_8);
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
 
-    public CourseServiceClient() {
-        this.restTemplate = new RestTemplate();
+    private static final String SERVICE_NAME = "course-service";
+
+    private final WebClient courseWebClient;
+    private final MeterRegistry meterRegistry;
+    private final ReactiveCircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    // Lectures identiques simultanées : un seul appel SOAP, clé = opération + paramètres ; null si désactivé
+    private final SingleFlight<String, Object> reads;
+
+    public CourseServiceClient(@Qualifier("courseWebClient") WebClient courseWebClient, MeterRegistry meterRegistry,
+                               ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory, BulkheadRegistry bulkheadRegistry,
+                               @Value("${services.course.single-flight.enabled:true}") boolean singleFlight) {
+        this.courseWebClient = courseWebClient;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreakerFactory.create(SERVICE_NAME);
+        this.bulkhead = bulkheadRegistry.bulkhead(SERVICE_NAME);
+        this.reads = singleFlight ? new SingleFlight<>(SERVICE_NAME, meterRegistry) : null;
+    }
+
+    public Mono<List<Cours>> getAllCourses() {
+        return read("getCours", "", this::readCoursList);
+    }
+
+    public Mono<Cours> getCourseById(int id) {
+        return read("getCoursById", element("id", id), this::readCoursList)
+                .flatMap(list -> list.isEmpty() ? Mono.empty() : Mono.just(list.get(0)));
+    }
+
+    public Mono<List<Cours>> getCoursesByDay(String day) {
+        return read("getCoursParJour", element("jour", day), this::readCoursList);
+    }
+
+    /**
+     * Page de cours triés par idCours, après le curseur afterId (null pour la première page)
+     */
+    public Mono<CoursPage> getCoursPage(Integer afterId, int limit) {
+        return read("getCoursPage", element("afterId", afterId) + element("limit", limit), this::readCoursPage);
+    }
+
+    /**
+     * Parcourt tout le catalogue page par page : une seule page est en mémoire à la fois
+     */
+    public Flux<Cours> streamAllCourses(int pageSize) {
+        return getCoursPage(null, pageSize)
+                .expand(page -> page.getNextAfterId() == null
+                        ? Mono.empty()
+                        : getCoursPage(page.getNextAfterId(), pageSize))
+                .concatMapIterable(CoursPage::getCours);
+    }
+
+    /**
+     * Salles sans aucun cours sur [debut, fin) ce jour-là, heures au format HH:mm
+     */
+    public Mono<List<String>> getFreeRooms(String day, String start, String end) {
+        return read("getSallesLibres", element("jour", day) + element("heureDebut", start) + element("heureFin", end),
+                this::readStringList);
+    }
+
+    public Mono<List<String>> getFreeProfessors(String day, String start, String end) {
+        return read("getProfesseursLibres", element("jour", day) + element("heureDebut", start) + element("heureFin", end),
+                this::readStringList);
+    }
+
+    /**
+     * Plages libres à la fois pour la salle et le professeur ; salle, professeur, début et fin sont facultatifs
+     */
+    public Mono<List<Creneau>> getFreeSlots(String day, String room, String professor, String start, String end) {
+        return read("getCreneauxLibres", element("jour", day) + element("salle", room)
+                + element("professeur", professor) + element("heureDebut", start) + element("heureFin", end),
+                this::readCreneaux);
+    }
+
+    public Mono<Boolean> addCourse(Course course) {
+        String cours = "<cours>"
+                + element("idCours", course.getIdCours())
+                + element("nomCours", course.getNomCours())
+                + element("salle", course.getSalle())
+                + element("professeur", course.getProfesseur())
+                + element("jour", course.getJour())
+                + element("heureDebut", course.getHeureDebut())
+                + element("heureFin", course.getHeureFin())
+                + "</cours>";
+        return call("ajouterCours", cours, this::readBoolean);
+    }
+
+    public Mono<Boolean> deleteCourse(int id) {
+        return call("supprimerCours", element("id", id), this::readBoolean);
+    }
+
+    /**
+     * Un seul appel pour tout le lot ; le résultat i indique si le cours i a été inséré (false pour un doublon)
+     */
+    public Mono<List<Boolean>> addCoursesBatch(List<Cours> courses) {
+        StringBuilder payload = new StringBuilder();
+        for (Cours cours : courses) {
+            payload.append("<cours>")
+                    .append(element("idCours", cours.getIdCours()))
+                    .append(element("nomCours", cours.getNomCours()))
+                    .append(element("salle", cours.getSalle()))
+                    .append(element("professeur", cours.getProfesseur()))
+                    .append(element("jour", cours.getJour()))
+                    .append(element("heureDebut", cours.getHeureDebut()))
+                    .append(element("heureFin", cours.getHeureFin()))
+                    .append("</cours>");
+        }
+        return call("ajouterCoursBatch", payload.toString(), this::readBooleanList);
+    }
+
+    /**
+     * Le résultat i indique si le cours ids[i] existait et a été supprimé
+     */
+    public Mono<List<Boolean>> deleteCoursesBatch(List<Integer> ids) {
+        StringBuilder payload = new StringBuilder();
+        for (Integer id : ids) {
+            payload.append(element("ids", id));
+        }
+        return call("supprimerCoursBatch", payload.toString(), this::readBooleanList);
+    }
+
+    /**
+     * Appel sans effet de bord : partagé avec un appel identique déjà en cours. Les followers reçoivent
+     * le même objet résultat, qui ne doit donc pas être modifié.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> read(String operation, String payload, SoapReader<T> reader) {
+        if (reads == null) {
+            return call(operation, payload, reader);
+        }
+        return (Mono<T>) reads.execute(operation + payload, () -> (Mono<Object>) call(operation, payload, reader));
+    }
+
+    private <T> Mono<T> call(String operation, String payload, SoapReader<T> reader) {
+        String envelope = "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\""
+                + " xmlns:ns=\"" + NAMESPACE + "\"><soap:Body>"
+                + "<ns:" + operation + ">" + payload + "</ns:" + operation + ">"
+                + "</soap:Body></soap:Envelope>";
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return courseWebClient.post()
+                    .contentType(SOAP_XML)
+                    .header("SOAPAction", "\"\"")
+                    .bodyValue(envelope)
+                    // Corps reçu en un seul DataBuffer (limite services.course.max-in-memory-size), lu par StAX sans copie
+                    .exchangeToMono(response -> response.bodyToMono(DataBuffer.class)
+                            .map(body -> parse(operation, body.asInputStream(true), response.statusCode().isError(), reader))
+                            .switchIfEmpty(Mono.fromSupplier(() -> parse(operation, InputStream.nullInputStream(),
+                                    response.statusCode().isError(), reader))))
+                    // Rejet immédiat si trop d'appels sont en cours ou si le circuit est ouvert
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transform(call -> circuitBreaker.run(call, Mono::error))
+                    .doOnSuccess(result -> record(operation, "success", start))
+                    .doOnError(e -> record(operation, isRejected(e) ? "rejected" : "error", start))
+                    .doOnCancel(() -> record(operation, "cancelled", start));
+        });
+    }
+
+    private <T> T parse(String operation, InputStream body, boolean httpError, SoapReader<T> reader) {
+        XMLStreamReader xml = null;
+        try (body) {
+            xml = XML_INPUT_FACTORY.createXMLStreamReader(body);
+            // Avance jusqu'au contenu du Body (réponse ou Fault)
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if ("Fault".equals(name)) {
+                        throw new CourseServiceException(operation + " : " + readFaultString(xml));
+                    }
+                    if ((operation + "Response").equals(name)) {
+                        return reader.read(xml);
+                    }
+                }
+            }
+            throw new CourseServiceException(operation + " : réponse SOAP inattendue" + (httpError ? " (erreur HTTP)" : ""));
+        } catch (XMLStreamException | IOException e) {
+            throw new CourseServiceException(operation + " : réponse SOAP illisible", e);
+        } finally {
+            if (xml != null) {
+                try {
+                    xml.close();
+                } catch (XMLStreamException ignored) {
+                    // rien à libérer de plus
+                }
+            }
+        }
+    }
+
+    /**
+     * Lit les éléments "return" de la réponse courante, chacun étant un cours
+     */
+    private List<Cours> readCoursList(XMLStreamReader xml) throws XMLStreamException {
+        List<Cours> list = new ArrayList<>();
+        int depth = 1;
+        while (depth > 0 && xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if ("return".equals(xml.getLocalName())) {
+                    list.add(readCours(xml));
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Lit l'élément "return" de getCoursPage : des éléments "cours" puis le curseur suivant
+     */
+    private CoursPage readCoursPage(XMLStreamReader xml) throws XMLStreamException {
+        CoursPage page = new CoursPage();
+        if (xml.nextTag() != XMLStreamConstants.START_ELEMENT) {
+            return page;
+        }
+        while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String field = xml.getLocalName();
+            if ("cours".equals(field)) {
+                page.getCours().add(readCours(xml));
+            } else if ("nextAfterId".equals(field)) {
+                page.setNextAfterId(Integer.parseInt(xml.getElementText().trim()));
+            } else {
+                log.debug("Champ de page ignoré : {}", field);
+                xml.getElementText();
+            }
+        }
+        return page;
+    }
+
+    private Cours readCours(XMLStreamReader xml) throws XMLStreamException {
+        Cours cours = new Cours();
+        while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String field = xml.getLocalName();
+            String value = xml.getElementText();
+            switch (field) {
+                case "idCours" -> cours.setIdCours(Integer.parseInt(value.trim()));
+                case "nomCours" -> cours.setNomCours(value);
+                case "salle" -> cours.setSalle(value);
+                case "professeur" -> cours.setProfesseur(value);
+                case "jour" -> cours.setJour(value);
+                case "heureDebut" -> cours.setHeureDebut(value);
+                case "heureFin" -> cours.setHeureFin(value);
+                default -> log.debug("Champ de cours ignoré : {}", field);
+            }
+        }
+        return cours;
     }
 
-    public List<Cours> getAllCourses() {
-        try {
-            // TODO: Implement SOAP call to course-service
-            // For now, return empty list
-            return Arrays.asList();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to get courses", e);
+    private Boolean readBoolean(XMLStreamReader xml) throws XMLStreamException {
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "return".equals(xml.getLocalName())) {
+                return Boolean.parseBoolean(xml.getElementText().trim());
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
         }
+        return false;
     }
 
-    public Cours getCourseById(int id) {
-        try {
-            // TODO: Implement SOAP call to course-service
-            return null;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to get course by id", e);
+    private List<Boolean> readBooleanList(XMLStreamReader xml) throws XMLStreamException {
+        List<Boolean> list = new ArrayList<>();
+        while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String value = xml.getElementText();
+            if ("return".equals(xml.getLocalName())) {
+                list.add(Boolean.parseBoolean(value.trim()));
+            }
         }
+        return list;
     }
 
-    public List<Cours> getCoursesByDay(String day) {
-        try {
-            // TODO: Implement SOAP call to course-service
-            return Arrays.asList();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to get courses by day", e);
+    private List<String> readStringList(XMLStreamReader xml) throws XMLStreamException {
+        List<String> list = new ArrayList<>();
+        while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String value = xml.getElementText();
+            if ("return".equals(xml.getLocalName())) {
+                list.add(value);
+            }
         }
+        return list;
     }
 
-    public boolean addCourse(Course course) {
-        try {
-            // TODO: Implement SOAP call to course-service
-            return false;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to add course", e);
+    private List<Creneau> readCreneaux(XMLStreamReader xml) throws XMLStreamException {
+        List<Creneau> list = new ArrayList<>();
+        while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            Creneau creneau = new Creneau();
+            while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                String field = xml.getLocalName();
+                String value = xml.getElementText();
+                switch (field) {
+                    case "heureDebut" -> creneau.setHeureDebut(value);
+                    case "heureFin" -> creneau.setHeureFin(value);
+                    default -> log.debug("Champ de créneau ignoré : {}", field);
+                }
+            }
+            list.add(creneau);
         }
+        return list;
     }
 
-    public boolean deleteCourse(int id) {
-        try {
-            // TODO: Implement SOAP call to course-service
-            return false;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to delete course", e);
+    private String readFaultString(XMLStreamReader xml) throws XMLStreamException {
+        while (xml.hasNext()) {
+            if (xml.next() == XMLStreamConstants.START_ELEMENT
+                    && ("faultstring".equals(xml.getLocalName()) || "Text".equals(xml.getLocalName()))) {
+                return xml.getElementText();
+            }
         }
+        return "SOAP Fault";
+    }
+
+    /**
+     * Vrai si l'appel n'a pas été tenté : circuit ouvert ou bulkhead saturé
+     */
+    public static boolean isRejected(Throwable e) {
+        return e instanceof CallNotPermittedException || e instanceof BulkheadFullException;
+    }
+
+    private void record(String operation, String outcome, long startNanos) {
+        Timer.builder("course.client.requests")
+                .description("Durée des appels SOAP vers course-service")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    private static String element(String name, Object value) {
+        if (value == null) {
+            return "";
+        }
+        return "<" + name + ">" + escape(String.valueOf(value)) + "</" + name + ">";
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&apos;");
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    @FunctionalInterface
+    private interface SoapReader<T> {
+        T read(XMLStreamReader xml) throws XMLStreamException;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package com.university.apigateway.service;
+
+/**
+ * Erreur renvoyée par le service SOAP des cours (SOAP Fault ou réponse illisible)
+ */
+public class CourseServiceException extends RuntimeException {
+    public CourseServiceException(String message) {
+        super(message);
+    }
+
+    public CourseServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
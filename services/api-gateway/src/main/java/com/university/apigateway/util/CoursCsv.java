@@ -0,0 +1,99 @@
+package com.university.apigateway.util;
+
+import com.university.apigateway.model.Cours;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Format CSV des imports/exports de cours : une ligne par cours, champs dans l'ordre de HEADER.
+ * Les champs contenant une virgule ou un guillemet sont entre guillemets (RFC 4180) ; les sauts de ligne
+ * sont remplacés par des espaces pour que chaque cours tienne sur une ligne et puisse être lu en flux.
+ */
+public final class CoursCsv {
+
+    public static final String HEADER = "idCours,nomCours,salle,professeur,jour,heureDebut,heureFin";
+
+    private static final int FIELDS = 7;
+
+    private CoursCsv() {
+    }
+
+    public static boolean isHeader(String line) {
+        return line.trim().startsWith("idCours");
+    }
+
+    public static String format(Cours cours) {
+        return cours.getIdCours()
+                + "," + quote(cours.getNomCours())
+                + "," + quote(cours.getSalle())
+                + "," + quote(cours.getProfesseur())
+                + "," + quote(cours.getJour())
+                + "," + quote(cours.getHeureDebut())
+                + "," + quote(cours.getHeureFin());
+    }
+
+    /**
+     * @throws IllegalArgumentException si la ligne n'a pas 7 champs ou si idCours n'est pas un entier
+     */
+    public static Cours parse(String line) {
+        List<String> fields = split(line);
+        if (fields.size() != FIELDS) {
+            throw new IllegalArgumentException(FIELDS + " champs attendus, " + fields.size() + " trouvés");
+        }
+        int idCours;
+        try {
+            idCours = Integer.parseInt(fields.get(0).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("idCours invalide : " + fields.get(0));
+        }
+        return new Cours(idCours, emptyToNull(fields.get(1)), emptyToNull(fields.get(2)), emptyToNull(fields.get(3)),
+                emptyToNull(fields.get(4)), emptyToNull(fields.get(5)), emptyToNull(fields.get(6)));
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(FIELDS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("guillemet non fermé");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        String singleLine = value.replace('\r', ' ').replace('\n', ' ');
+        if (singleLine.indexOf(',') < 0 && singleLine.indexOf('"') < 0) {
+            return singleLine;
+        }
+        return "\"" + singleLine.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -1,14 +1,21 @@
 package com.university.apigateway.util;
 
+import com.university.apigateway.model.JwtPrincipal;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
@@ -16,24 +23,85 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secretKey;
 
+    @Value("${jwt.key-id:primary}")
+    private String keyId;
+
+    /**
+     * Anciennes clés encore acceptées pendant une rotation, au format "kid=secret,kid2=secret2"
+     */
+    @Value("${jwt.previous-keys:}")
+    private String previousKeys;
+
+    // Clés et parser construits une seule fois : ils sont immuables et thread-safe
+    private SecretKey signingKey;
+    private Map<String, SecretKey> verificationKeys;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = getSigningKey(secretKey);
+
+        Map<String, SecretKey> keys = new HashMap<>();
+        if (keyId != null) {
+            keys.put(keyId, signingKey);
+        }
+        if (StringUtils.hasText(previousKeys)) {
+            for (String entry : previousKeys.split(",")) {
+                String[] parts = entry.trim().split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalStateException("Entrée jwt.previous-keys invalide : " + entry);
+                }
+                keys.putIfAbsent(parts[0].trim(), getSigningKey(parts[1].trim()));
+            }
+        }
+        this.verificationKeys = Map.copyOf(keys);
+
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
     /**
      * Génère la clé de signature à partir de la clé secrète
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+    private SecretKey getSigningKey(String secret) {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
     /**
-     * Valide un token JWT
+     * Sélectionne la clé de vérification d'après l'en-tête "kid" (clé courante si absent)
      */
-    public boolean validateToken(String token) {
+    private Key resolveKey(String kid) {
+        if (kid == null) {
+            return signingKey;
+        }
+        SecretKey key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new SecurityException("Clé de signature inconnue : " + kid);
+        }
+        return key;
+    }
+
+    /**
+     * Vérifie la signature et l'expiration du token en une seule passe
+     * et retourne les informations utilisateur qu'il contient
+     */
+    public Optional<JwtPrincipal> parseToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            JwtPrincipal principal = new JwtPrincipal(
+                    claims.getSubject(),
+                    claims.get("userId", String.class),
+                    claims.get("role", String.class),
+                    claims.getExpiration());
+            // parseSignedClaims rejette déjà les tokens expirés, on garde la vérification par sécurité
+            return principal.isExpired() ? Optional.empty() : Optional.of(principal);
         } catch (SecurityException | MalformedJwtException ex) {
             System.err.println("JWT invalide: " + ex.getMessage());
         } catch (ExpiredJwtException ex) {
@@ -43,43 +111,35 @@ public class JwtUtil {
         } catch (IllegalArgumentException ex) {
             System.err.println("JWT vide: " + ex.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Valide un token JWT
+     */
+    public boolean validateToken(String token) {
+        return parseToken(token).isPresent();
     }
 
     /**
      * Extrait le username depuis le token
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        return parseClaims(token).getSubject();
     }
 
     /**
      * Extrait l'ID utilisateur depuis le token
      */
     public String getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("userId", String.class);
+        return parseClaims(token).get("userId", String.class);
     }
 
     /**
      * Extrait le rôle depuis le token
      */
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("role", String.class);
+        return parseClaims(token).get("role", String.class);
     }
 
     /**
@@ -87,15 +147,14 @@ public class JwtUtil {
      */
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            Date expiration = claims.getExpiration();
+            Date expiration = parseClaims(token).getExpiration();
             return expiration.before(new Date());
         } catch (Exception e) {
             return true;
         }
     }
-}
\ No newline at end of file
+
+    private Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,122 @@
+package com.university.apigateway.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Regroupe les appels identiques simultanés : le premier (leader) part vers le service en aval,
+ * ceux qui arrivent avant sa réponse (followers) reçoivent le même résultat, ou la même erreur.
+ * L'entrée disparaît dès la réponse : rien n'est mis en cache au-delà de l'appel en cours.
+ *
+ * Métriques : gateway.single-flight.requests{name, role=leader|follower} ; le taux de regroupement
+ * est follower / (leader + follower). gateway.single-flight.in-flight donne les appels en cours.
+ */
+public class SingleFlight<K, T> {
+
+    private final Map<K, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaders = counter(name, "leader", meterRegistry);
+        this.followers = counter(name, "follower", meterRegistry);
+        Gauge.builder("gateway.single-flight.in-flight", inFlight, Map::size)
+                .description("Appels en aval en cours partagés par le single-flight")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param call lancé au plus une fois par clé tant qu'un appel identique est en cours
+     */
+    public Mono<T> execute(K key, Supplier<Mono<T>> call) {
+        return execute(key, flight -> call.get());
+    }
+
+    /**
+     * Variante où l'appel reçoit son Flight, pour se détacher s'il n'a aucun follower (voir {@link Flight#detachIfAlone()})
+     */
+    public Mono<T> execute(K key, Function<Flight, Mono<T>> call) {
+        return Mono.defer(() -> {
+            while (true) {
+                AtomicBoolean leader = new AtomicBoolean();
+                Flight flight = inFlight.computeIfAbsent(key, k -> {
+                    leader.set(true);
+                    return new Flight(k, call);
+                });
+                if (leader.get()) {
+                    leaders.increment();
+                    return flight.result;
+                }
+                if (flight.join()) {
+                    followers.increment();
+                    return flight.result;
+                }
+                // Détaché par son leader entre computeIfAbsent et join : un nouvel appel part
+                inFlight.remove(key, flight);
+            }
+        });
+    }
+
+    private static Counter counter(String name, String role, MeterRegistry meterRegistry) {
+        return Counter.builder("gateway.single-flight.requests")
+                .description("Requêtes passées par le single-flight, parties en aval (leader) ou regroupées (follower)")
+                .tag("name", name)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appel en cours pour une clé
+     */
+    public final class Flight {
+
+        private final K key;
+        // Nombre de followers, -1 une fois détaché
+        private final AtomicInteger joined = new AtomicInteger();
+        private final Mono<T> result;
+
+        private Flight(K key, Function<Flight, Mono<T>> call) {
+            this.key = key;
+            // Retiré avant que le résultat ne soit transmis : un appel lancé après la réponse repart en aval.
+            // share() : l'appel n'est annulé que si tous les abonnés l'abandonnent.
+            this.result = Mono.defer(() -> call.apply(this))
+                    .doOnEach(signal -> inFlight.remove(key, this))
+                    .doOnCancel(() -> inFlight.remove(key, this))
+                    .share();
+        }
+
+        private boolean join() {
+            while (true) {
+                int count = joined.get();
+                if (count < 0) {
+                    return false;
+                }
+                if (joined.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Si aucun follower n'a rejoint l'appel, le ferme aux nouveaux venus et renvoie true :
+         * le leader peut alors traiter sa réponse seul, sans la garder pour d'autres
+         */
+        public boolean detachIfAlone() {
+            if (joined.compareAndSet(0, -1)) {
+                inFlight.remove(key, this);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.university.apigateway;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Écritures de /api/courses et route SOAP contre un faux course-service : création, conflit, erreurs en aval
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CourseControllerTests {
+
+    private static final String SECRET = "dGhpc2lzYWpheWF0c2VjcmV0Zm9yaGp3dGhlcmVpc2Fsb25nc3RyaW5nZm9yaG1hY3NoYTI1NmtleQ";
+    private static final String ENVELOPE = "<?xml version=\"1.0\" ?><S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<S:Body>%s</S:Body></S:Envelope>";
+    private static final List<String> REQUESTS = new CopyOnWriteArrayList<>();
+    private static final HttpServer SERVER = startServer();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void courseService(DynamicPropertyRegistry registry) {
+        registry.add("services.course.url", () -> "http://localhost:" + SERVER.getAddress().getPort() + "/ws/courses");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop(0);
+    }
+
+    @BeforeEach
+    void clearRequests() {
+        REQUESTS.clear();
+    }
+
+    @Test
+    void createSendsTheCourseToTheSoapService() {
+        webTestClient.post().uri("/api/courses").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"code\":\"COURSE12\",\"name\":\"Réseaux\",\"instructor\":\"Dr. Ben Ali\","
+                        + "\"schedule\":\"Lundi 08:30-10:00\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.id").isEqualTo("12").jsonPath("$.name").isEqualTo("Réseaux");
+
+        assertEquals(1, REQUESTS.size());
+        String request = REQUESTS.get(0);
+        assertTrue(request.contains("<ns:ajouterCours>"));
+        assertTrue(request.contains("<idCours>12</idCours>"));
+        assertTrue(request.contains("<jour>Lundi</jour><heureDebut>08:30</heureDebut><heureFin>10:00</heureFin>"));
+    }
+
+    @Test
+    void refusedCreateIsAConflict() {
+        webTestClient.post().uri("/api/courses").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"code\":\"7\",\"name\":\"Doublon\",\"schedule\":\"Mardi 10:00-12:00\"}")
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void unreadableScheduleIsRejectedWithoutCallingTheService() {
+        webTestClient.post().uri("/api/courses").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"code\":\"COURSE12\",\"name\":\"Réseaux\",\"schedule\":\"le matin\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        assertTrue(REQUESTS.isEmpty());
+    }
+
+    @Test
+    void updateIsNotImplemented() {
+        webTestClient.put().uri("/api/courses/12").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Réseaux\"}")
+                .exchange()
+                .expectStatus().isEqualTo(501);
+    }
+
+    @Test
+    void downstreamDeleteFailureIsABadGateway() {
+        webTestClient.delete().uri("/api/courses/9").exchange()
+                .expectStatus().isEqualTo(502);
+    }
+
+    @Test
+    void soapRouteFollowsTheConfiguredCourseServiceUrl() {
+        webTestClient.post().uri("/ws/courses").contentType(MediaType.TEXT_XML)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                .bodyValue("<S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\"><S:Body>"
+                        + "<ns:supprimerCours><id>1</id></ns:supprimerCours></S:Body></S:Envelope>")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).value(body -> assertTrue(body.contains("<return>true</return>")));
+
+        assertEquals(1, REQUESTS.size());
+    }
+
+    private static String token() {
+        return Jwts.builder()
+                .header().keyId("primary").and()
+                .subject("alice")
+                .claim("userId", "42")
+                .claim("role", "ADMIN")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/ws/courses", exchange -> {
+                String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                REQUESTS.add(request);
+                String operation = request.replaceAll("(?s).*<ns:(\\w+)>.*", "$1");
+                String body;
+                int status = 200;
+                if (request.contains("<id>9</id>")) {
+                    body = "<S:Fault><faultcode>S:Server</faultcode><faultstring>MongoDB indisponible</faultstring></S:Fault>";
+                    status = 500;
+                } else {
+                    String result = request.contains("<idCours>7</idCours>") ? "false" : "true";
+                    body = "<ns2:" + operation + "Response xmlns:ns2=\"http://university.com/\"><return>" + result
+                            + "</return></ns2:" + operation + "Response>";
+                }
+                byte[] bytes = String.format(ENVELOPE, body).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "text/xml; charset=utf-8");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.university.apigateway;
+
+import com.sun.net.httpserver.HttpServer;
+import com.university.apigateway.filter.CourseResponseCacheFilter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cache des réponses /api/courses : ETag, 304 et invalidation, contre un faux course-service
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "services.course.batch-size=2")
+class CourseResponseCacheTests {
+
+    private static final String ENVELOPE = "<?xml version=\"1.0\" ?><S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<S:Body>%s</S:Body></S:Envelope>";
+    private static final List<String> OPERATIONS = new CopyOnWriteArrayList<>();
+    private static final HttpServer SERVER = startServer();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private CourseResponseCacheFilter cacheFilter;
+
+    @DynamicPropertySource
+    static void courseService(DynamicPropertyRegistry registry) {
+        registry.add("services.course.url", () -> "http://localhost:" + SERVER.getAddress().getPort() + "/ws/courses");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop(0);
+    }
+
+    @BeforeEach
+    void clearCache() {
+        cacheFilter.invalidate();
+        OPERATIONS.clear();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromCacheWithStrongEtag() {
+        String etag = webTestClient.get().uri("/api/courses").exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .returnResult(String.class).getResponseHeaders().getETag();
+        webTestClient.get().uri("/api/courses").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().jsonPath("$[0].name").isEqualTo("Réseaux");
+
+        assertNotNull(etag);
+        assertEquals(List.of("getCours"), OPERATIONS);
+    }
+
+    @Test
+    void matchingIfNoneMatchGetsNotModifiedWithoutCallingTheService() {
+        String etag = webTestClient.get().uri("/api/courses/1").exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/courses/1").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        webTestClient.get().uri("/api/courses/1").header(HttpHeaders.IF_NONE_MATCH, "\"autre\"").exchange()
+                .expectStatus().isOk();
+
+        assertEquals(List.of("getCoursById"), OPERATIONS);
+    }
+
+    @Test
+    void gatewayWritesInvalidateTheCache() {
+        webTestClient.get().uri("/api/courses").exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/api/courses/1").exchange().expectStatus().isOk();
+        webTestClient.get().uri("/api/courses").exchange().expectStatus().isOk();
+
+        assertEquals(List.of("getCours", "supprimerCours", "getCours"), OPERATIONS);
+    }
+
+    @Test
+    void readDuringAMultiBatchImportIsNotKeptAfterTheImport() {
+        String csv = "1,A,A1,P1,Lundi,08:00,09:00\n2,B,A2,P2,Lundi,08:00,09:00\n"
+                + "3,C,A3,P3,Lundi,08:00,09:00\n4,D,A4,P4,Lundi,08:00,09:00\n";
+        CompletableFuture<Void> importing = CompletableFuture.runAsync(() -> webTestClient.post()
+                .uri("/api/courses/import")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(csv)
+                .exchange()
+                .expectStatus().isOk()
+                // Lit tout le flux : l'import est terminé au retour
+                .expectBody(String.class).returnResult());
+        // Le second lot (cours 3) est retenu par le faux service : cette lecture tombe entre les deux lots
+        await(() -> OPERATIONS.contains("ajouterCoursBatch-3"));
+        webTestClient.get().uri("/api/courses").exchange().expectStatus().isOk();
+        importing.join();
+
+        webTestClient.get().uri("/api/courses").exchange().expectStatus().isOk();
+
+        assertEquals(2, OPERATIONS.stream().filter("getCours"::equals).count());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "délai dépassé");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/ws/courses", exchange -> {
+                String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                String operation = request.replaceAll("(?s).*<ns:(\\w+)>.*", "$1");
+                if (operation.equals("ajouterCoursBatch") && request.contains("<idCours>3</idCours>")) {
+                    OPERATIONS.add("ajouterCoursBatch-3");
+                    sleep(500);
+                } else {
+                    OPERATIONS.add(operation);
+                }
+                String result = switch (operation) {
+                    case "supprimerCours" -> "<return>true</return>";
+                    case "ajouterCoursBatch" -> "<return>true</return><return>true</return>";
+                    default -> "<return><idCours>1</idCours><nomCours>Réseaux</nomCours><jour>Lundi</jour></return>";
+                };
+                byte[] bytes = String.format(ENVELOPE, "<ns2:" + operation + "Response xmlns:ns2=\"http://university.com/\">"
+                        + result + "</ns2:" + operation + "Response>").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "text/xml; charset=utf-8");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            });
+            // Un lot retenu ne bloque pas les autres appels
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.university.apigateway;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Date;
+
+/**
+ * Student-service injoignable : la liste retombe sur le repli, les écritures échouent en 503
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "services.student.url=http://localhost:1")
+class StudentFallbackTests {
+
+    private static final String SECRET = "dGhpc2lzYWpheWF0c2VjcmV0Zm9yaGp3dGhlcmVpc2Fsb25nc3RyaW5nZm9yaG1hY3NoYTI1NmtleQ";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void listFallsBackToEmptyList() {
+        webTestClient.get().uri("/api/students")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("[]");
+    }
+
+    @Test
+    void createIsReportedUnavailable() {
+        webTestClient.post().uri("/api/students")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"cin\":\"12345678\"}")
+                .exchange()
+                .expectStatus().isEqualTo(503);
+    }
+
+    private static String token() {
+        return Jwts.builder()
+                .header().keyId("primary").and()
+                .subject("alice")
+                .claim("userId", "42")
+                .claim("role", "ADMIN")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+}
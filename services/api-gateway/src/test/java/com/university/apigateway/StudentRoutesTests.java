@@ -0,0 +1,224 @@
+package com.university.apigateway;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Vérifie la réécriture des chemins des routes student-service contre un faux serveur
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StudentRoutesTests {
+
+    private static final String SECRET = "dGhpc2lzYWpheWF0c2VjcmV0Zm9yaGp3dGhlcmVpc2Fsb25nc3RyaW5nZm9yaG1hY3NoYTI1NmtleQ";
+    private static final List<String> REQUESTS = new CopyOnWriteArrayList<>();
+    private static final byte[] BIG_BODY = ("[\"" + "x".repeat(1536 * 1024) + "\"]").getBytes(StandardCharsets.UTF_8);
+    private static final HttpServer SERVER = startServer();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void studentService(DynamicPropertyRegistry registry) {
+        registry.add("services.student.url", () -> "http://localhost:" + SERVER.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop(0);
+    }
+
+    @BeforeEach
+    void clearRequests() {
+        REQUESTS.clear();
+    }
+
+    @Test
+    void listAndSearchArePassedThrough() {
+        get("/api/students").expectStatus().isOk().expectBody(String.class).isEqualTo("[]");
+        get("/api/students/search?nom=Ben").expectStatus().isOk();
+
+        assertEquals(List.of("GET /api/students", "GET /api/students/search"), REQUESTS);
+    }
+
+    @Test
+    void readByIdUsesSingleLookup() {
+        get("/api/students/65a1b2c3d4e5f6a7b8c9d0e1").expectStatus().isOk();
+        get("/api/students/12345678").expectStatus().isOk();
+
+        assertEquals(List.of("GET /api/students/lookup/65a1b2c3d4e5f6a7b8c9d0e1", "GET /api/students/lookup/12345678"), REQUESTS);
+    }
+
+    @Test
+    void updateAndDeleteUseCinRoute() {
+        webTestClient.put().uri("/api/students/12345678")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"nom\":\"Ben Salah\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"nom\":\"Ben Salah\"}");
+        webTestClient.delete().uri("/api/students/12345678")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                .exchange()
+                .expectStatus().isOk();
+
+        assertEquals(List.of("PUT /api/students/cin/12345678", "DELETE /api/students/cin/12345678"), REQUESTS);
+    }
+
+    @Test
+    void concurrentIdenticalReadsShareOneDownstreamCall() {
+        String token = token();
+        List<CompletableFuture<String>> responses = IntStream.range(0, 5)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> webTestClient.get().uri("/api/students/slow")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .exchange()
+                        .expectStatus().isOk()
+                        .expectBody(String.class).returnResult().getResponseBody()))
+                .toList();
+
+        responses.forEach(response -> assertEquals("[]", response.join()));
+        assertEquals(List.of("GET /api/students/lookup/slow"), REQUESTS);
+        assertEquals(4, meterRegistry.get("gateway.single-flight.requests")
+                .tag("name", "student-service").tag("role", "follower").counter().count());
+    }
+
+    @Test
+    void responsesLargerThanTheCaptureLimitAreStreamedAndFollowersCallAgain() {
+        String token = token();
+        List<CompletableFuture<Integer>> responses = IntStream.range(0, 3)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> webTestClient.mutate()
+                        .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(4 * 1024 * 1024)).build()
+                        .get().uri("/api/students/big")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .exchange()
+                        .expectStatus().isOk()
+                        .expectBody(byte[].class).returnResult().getResponseBody().length))
+                .toList();
+
+        responses.forEach(response -> assertEquals(BIG_BODY.length, response.join()));
+        // Réponse au-delà de 1 Mo : non recopiée, chaque follower refait son appel
+        assertEquals(3, REQUESTS.stream().filter("GET /api/students/lookup/big"::equals).count());
+    }
+
+    @Test
+    void studentRoutesUseDedicatedPool() {
+        get("/api/students").expectStatus().isOk();
+
+        Gauge maxConnections = Metrics.globalRegistry.find("reactor.netty.connection.provider.max.connections")
+                .tag("name", "proxy")
+                .tag("remote.address", "localhost:" + SERVER.getAddress().getPort())
+                .gauge();
+        assertNotNull(maxConnections);
+        assertEquals(100, maxConnections.value());
+    }
+
+    @Test
+    void circuitBreakerStateIsExported() {
+        get("/api/students").expectStatus().isOk();
+
+        assertNotNull(meterRegistry.find("resilience4j.circuitbreaker.state")
+                .tag("name", "student-service")
+                .gauges().stream().findAny().orElse(null));
+        assertNotNull(meterRegistry.find("resilience4j.bulkhead.available.concurrent.calls")
+                .tag("name", "student-service")
+                .gauge());
+    }
+
+    @Test
+    void studentRoutesRequireToken() {
+        webTestClient.get().uri("/api/students").exchange().expectStatus().isUnauthorized();
+
+        assertEquals(List.of(), REQUESTS);
+    }
+
+    private WebTestClient.ResponseSpec get(String uri) {
+        return webTestClient.get().uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                .exchange();
+    }
+
+    private static String token() {
+        return Jwts.builder()
+                .header().keyId("primary").and()
+                .subject("alice")
+                .claim("userId", "42")
+                .claim("role", "ADMIN")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/students", exchange -> {
+                REQUESTS.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+                if (exchange.getRequestURI().getPath().endsWith("/big")) {
+                    sleep(300);
+                    exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+                    exchange.sendResponseHeaders(200, BIG_BODY.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(BIG_BODY);
+                    }
+                    return;
+                }
+                if (exchange.getRequestURI().getPath().endsWith("/slow")) {
+                    // Laisse aux requêtes concurrentes le temps d'arriver pendant l'appel
+                    sleep(500);
+                }
+                // Renvoie le corps reçu, ou une liste vide
+                byte[] body = exchange.getRequestBody().readAllBytes();
+                byte[] bytes = body.length > 0 ? body : "[]".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.university.apigateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.university.apigateway.config.OutboundHttpProperties;
+import com.university.apigateway.config.WebClientConfig;
+import com.university.apigateway.model.Course;
+import com.university.apigateway.model.Cours;
+import com.university.apigateway.model.CoursImportResult;
+import com.university.apigateway.model.CoursPage;
+import com.university.apigateway.model.Creneau;
+import com.university.apigateway.util.CoursCsv;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigurationProperties;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste le client contre un faux serveur SOAP qui renvoie des réponses au format JAX-WS
+ */
+class CourseServiceClientTest {
+
+    private static final String ENVELOPE = "<?xml version=\"1.0\" ?><S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<S:Body>%s</S:Body></S:Envelope>";
+
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+    private final Map<String, String> requests = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile long delayMillis;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private WebClient webClient;
+    private CourseServiceClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ws/courses", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String operation = responses.keySet().stream().filter(op -> body.contains("<ns:" + op + ">"))
+                    .findFirst().orElse("unknown");
+            requests.put(operation, body);
+            hits.incrementAndGet();
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String response = responses.getOrDefault(operation, "");
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/xml; charset=utf-8");
+            exchange.sendResponseHeaders(response.contains("Fault") ? 500 : 200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+
+        OutboundHttpProperties properties = new OutboundHttpProperties();
+        properties.getCourse().setUrl("http://localhost:" + server.getAddress().getPort() + "/ws/courses");
+        properties.getCourse().setMaxConnections(10);
+        properties.getCourse().setConnectTimeout(Duration.ofSeconds(1));
+        properties.getCourse().setResponseTimeout(Duration.ofSeconds(2));
+        webClient = new WebClientConfig().courseWebClient(WebClient.builder(), properties);
+        client = newClient(CircuitBreakerConfig.ofDefaults(), BulkheadConfig.ofDefaults());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void getAllCoursesParsesEveryReturnElement() {
+        responses.put("getCours", String.format(ENVELOPE, "<ns2:getCoursResponse xmlns:ns2=\"http://university.com/\">"
+                + "<return><heureDebut>08:30</heureDebut><heureFin>10:00</heureFin><idCours>1</idCours>"
+                + "<jour>Lundi</jour><nomCours>Algèbre &amp; Analyse</nomCours><professeur>Dr. Ben Ali</professeur>"
+                + "<salle>A1</salle></return>"
+                + "<return><idCours>2</idCours><nomCours>Réseaux</nomCours><jour>Mardi</jour></return>"
+                + "</ns2:getCoursResponse>"));
+
+        List<Cours> courses = client.getAllCourses().block(Duration.ofSeconds(5));
+
+        assertNotNull(courses);
+        assertEquals(2, courses.size());
+        assertEquals(1, courses.get(0).getIdCours());
+        assertEquals("Algèbre & Analyse", courses.get(0).getNomCours());
+        assertEquals("A1", courses.get(0).getSalle());
+        assertEquals("10:00", courses.get(0).getHeureFin());
+        assertEquals("Réseaux", courses.get(1).getNomCours());
+        assertEquals(1, registry.get("course.client.requests").tag("operation", "getCours").timer().count());
+    }
+
+    @Test
+    void getAllCoursesReadsResponsesLargerThanTheDefaultCodecLimit() {
+        StringBuilder returns = new StringBuilder();
+        for (int id = 1; id <= 3000; id++) {
+            returns.append("<return><heureDebut>08:30</heureDebut><heureFin>10:00</heureFin><idCours>").append(id)
+                    .append("</idCours><jour>Lundi</jour><nomCours>Cours ").append(id)
+                    .append("</nomCours><professeur>Dr. Ben Ali</professeur><salle>A1</salle></return>");
+        }
+        String response = String.format(ENVELOPE, "<ns2:getCoursResponse xmlns:ns2=\"http://university.com/\">"
+                + returns + "</ns2:getCoursResponse>");
+        assertTrue(response.length() > 256 * 1024);
+        responses.put("getCours", response);
+
+        List<Cours> courses = client.getAllCourses().block(Duration.ofSeconds(5));
+
+        assertNotNull(courses);
+        assertEquals(3000, courses.size());
+        assertEquals(3000, courses.get(2999).getIdCours());
+    }
+
+    @Test
+    void getCourseByIdIsEmptyWhenNotFound() {
+        responses.put("getCoursById", String.format(ENVELOPE,
+                "<ns2:getCoursByIdResponse xmlns:ns2=\"http://university.com/\"/>"));
+
+        assertNull(client.getCourseById(99).block(Duration.ofSeconds(5)));
+        assertTrue(requests.get("getCoursById").contains("<id>99</id>"));
+    }
+
+    @Test
+    void addCourseSendsEscapedFieldsAndReadsBooleanResult() {
+        responses.put("ajouterCours", String.format(ENVELOPE, "<ns2:ajouterCoursResponse xmlns:ns2=\"http://university.com/\">"
+                + "<return>true</return></ns2:ajouterCoursResponse>"));
+
+        Boolean added = client.addCourse(new Course(3, "R&D <intro>", "B2", "Dr. X", "Jeudi", "10:00", "12:00"))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(Boolean.TRUE, added);
+        assertTrue(requests.get("ajouterCours").contains("<nomCours>R&amp;D &lt;intro&gt;</nomCours>"));
+    }
+
+    @Test
+    void soapFaultIsReportedAsCourseServiceException() {
+        responses.put("supprimerCours", String.format(ENVELOPE, "<S:Fault><faultcode>S:Server</faultcode>"
+                + "<faultstring>java.lang.NullPointerException</faultstring></S:Fault>"));
+
+        CourseServiceException e = assertThrows(CourseServiceException.class,
+                () -> client.deleteCourse(1).block(Duration.ofSeconds(5)));
+        assertTrue(e.getMessage().contains("NullPointerException"));
+    }
+
+    @Test
+    void streamAllCoursesFollowsCursorUntilLastPage() {
+        server.createContext("/ws/pages", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String page = body.contains("<afterId>2</afterId>")
+                    ? "<return><cours><idCours>3</idCours><nomCours>C</nomCours></cours></return>"
+                    : "<return><cours><idCours>1</idCours><nomCours>A</nomCours></cours>"
+                    + "<cours><idCours>2</idCours><nomCours>B</nomCours></cours><nextAfterId>2</nextAfterId></return>";
+            byte[] bytes = String.format(ENVELOPE, "<ns2:getCoursPageResponse xmlns:ns2=\"http://university.com/\">"
+                    + page + "</ns2:getCoursPageResponse>").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/xml; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        webClient = webClient.mutate().baseUrl("http://localhost:" + server.getAddress().getPort() + "/ws/pages").build();
+        CourseServiceClient paged = newClient(CircuitBreakerConfig.ofDefaults(), BulkheadConfig.ofDefaults());
+
+        CoursPage first = paged.getCoursPage(null, 2).block(Duration.ofSeconds(5));
+        List<Cours> all = paged.streamAllCourses(2).collectList().block(Duration.ofSeconds(5));
+
+        assertNotNull(first);
+        assertEquals(2, first.getCours().size());
+        assertEquals(2, first.getNextAfterId());
+        assertNotNull(all);
+        assertEquals(List.of(1, 2, 3), all.stream().map(Cours::getIdCours).toList());
+    }
+
+    @Test
+    void addCoursesBatchSendsOneEnvelopeAndReadsEveryResult() {
+        responses.put("ajouterCoursBatch", String.format(ENVELOPE, "<ns2:ajouterCoursBatchResponse xmlns:ns2=\"http://university.com/\">"
+                + "<return>true</return><return>false</return><return>true</return></ns2:ajouterCoursBatchResponse>"));
+
+        List<Boolean> results = client.addCoursesBatch(List.of(
+                new Cours(1, "A", "A1", "P", "Lundi", "08:00", "10:00"),
+                new Cours(2, "B", "A1", "P", "Lundi", "10:00", "12:00"),
+                new Cours(3, "C", "A1", "P", "Lundi", "14:00", "16:00"))).block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(true, false, true), results);
+        assertEquals(1, hits.get());
+        assertEquals(3, requests.get("ajouterCoursBatch").split("<cours>").length - 1);
+    }
+
+    @Test
+    void importLinesReportsOneResultPerLineInFileOrder() {
+        responses.put("ajouterCoursBatch", String.format(ENVELOPE, "<ns2:ajouterCoursBatchResponse xmlns:ns2=\"http://university.com/\">"
+                + "<return>true</return><return>false</return></ns2:ajouterCoursBatchResponse>"));
+        CourseImportService importer = new CourseImportService(client, new ObjectMapper(), 10);
+
+        List<CoursImportResult> results = importer.importLines(Flux.just(
+                CoursCsv.HEADER,
+                "1,\"Algèbre, Analyse\",A1,Dr. X,Lundi,08:00,10:00",
+                "x,B,A1,Dr. X,Lundi,10:00,12:00",
+                "",
+                "2,C,A1,Dr. X,Mardi,08:00,10:00"), true).collectList().block(Duration.ofSeconds(5));
+
+        assertNotNull(results);
+        assertEquals(List.of(2L, 3L, 5L), results.stream().map(CoursImportResult::getLine).toList());
+        assertTrue(results.get(0).isImported());
+        assertFalse(results.get(1).isImported());
+        assertNull(results.get(1).getIdCours());
+        assertFalse(results.get(2).isImported());
+        assertEquals(2, results.get(2).getIdCours());
+        assertTrue(requests.get("ajouterCoursBatch").contains("<nomCours>Algèbre, Analyse</nomCours>"));
+    }
+
+    @Test
+    void availabilityQueriesReadRoomsAndSlots() {
+        responses.put("getSallesLibres", String.format(ENVELOPE, "<ns2:getSallesLibresResponse xmlns:ns2=\"http://university.com/\">"
+                + "<return>A1</return><return>B2</return></ns2:getSallesLibresResponse>"));
+        responses.put("getCreneauxLibres", String.format(ENVELOPE, "<ns2:getCreneauxLibresResponse xmlns:ns2=\"http://university.com/\">"
+                + "<return><heureDebut>08:00</heureDebut><heureFin>10:30</heureFin></return>"
+                + "<return><heureDebut>12:00</heureDebut><heureFin>18:00</heureFin></return>"
+                + "</ns2:getCreneauxLibresResponse>"));
+
+        List<String> rooms = client.getFreeRooms("Mardi", "10:00", "12:00").block(Duration.ofSeconds(5));
+        List<Creneau> slots = client.getFreeSlots("Mardi", "A1", null, "08:00", "18:00").block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("A1", "B2"), rooms);
+        assertTrue(requests.get("getSallesLibres").contains("<heureDebut>10:00</heureDebut><heureFin>12:00</heureFin>"));
+        assertEquals(List.of(new Creneau("08:00", "10:30"), new Creneau("12:00", "18:00")), slots);
+        assertFalse(requests.get("getCreneauxLibres").contains("<professeur>"));
+    }
+
+    @Test
+    void concurrentIdenticalReadsShareOneSoapCall() {
+        responses.put("getCours", String.format(ENVELOPE, "<ns2:getCoursResponse xmlns:ns2=\"http://university.com/\">"
+                + "<return><idCours>1</idCours><nomCours>A</nomCours></return></ns2:getCoursResponse>"));
+        delayMillis = 300;
+
+        List<List<Cours>> results = Flux.range(0, 5)
+                .flatMap(i -> client.getAllCourses())
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        List<Cours> sequential = client.getAllCourses().block(Duration.ofSeconds(5));
+
+        assertNotNull(results);
+        assertEquals(5, results.size());
+        assertTrue(results.stream().allMatch(list -> list.get(0).getIdCours() == 1));
+        assertNotNull(sequential);
+        // Une fois la réponse reçue, l'appel suivant repart vers le service
+        assertEquals(2, hits.get());
+        assertEquals(4, registry.get("gateway.single-flight.requests").tag("role", "follower").counter().count());
+    }
+
+    @Test
+    void openCircuitRejectsCallsWithoutReachingTheService() {
+        responses.put("supprimerCours", String.format(ENVELOPE, "<S:Fault><faultcode>S:Server</faultcode>"
+                + "<faultstring>indisponible</faultstring></S:Fault>"));
+        CourseServiceClient fragile = newClient(CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .build(), BulkheadConfig.ofDefaults());
+
+        assertThrows(CourseServiceException.class, () -> fragile.deleteCourse(1).block(Duration.ofSeconds(5)));
+        assertThrows(CourseServiceException.class, () -> fragile.deleteCourse(1).block(Duration.ofSeconds(5)));
+        assertThrows(CallNotPermittedException.class, () -> fragile.deleteCourse(1).block(Duration.ofSeconds(5)));
+
+        assertEquals(2, hits.get());
+        assertEquals(1, registry.get("course.client.requests").tag("outcome", "rejected").timer().count());
+    }
+
+    @Test
+    void saturatedBulkheadRejectsImmediately() {
+        CourseServiceClient narrow = newClient(CircuitBreakerConfig.ofDefaults(), BulkheadConfig.custom()
+                .maxConcurrentCalls(0)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+
+        assertThrows(BulkheadFullException.class, () -> narrow.getAllCourses().block(Duration.ofSeconds(5)));
+        assertEquals(0, hits.get());
+    }
+
+    private CourseServiceClient newClient(CircuitBreakerConfig circuitBreakerConfig, BulkheadConfig bulkheadConfig) {
+        return new CourseServiceClient(webClient, registry,
+                new ReactiveResilience4JCircuitBreakerFactory(CircuitBreakerRegistry.of(circuitBreakerConfig),
+                        TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(5)).build()),
+                        new Resilience4JConfigurationProperties()),
+                BulkheadRegistry.of(bulkheadConfig), true);
+    }
+}
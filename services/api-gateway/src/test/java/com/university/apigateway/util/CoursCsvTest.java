@@ -0,0 +1,38 @@
+package com.university.apigateway.util;
+
+import com.university.apigateway.model.Cours;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoursCsvTest {
+
+    @Test
+    void formatThenParseKeepsQuotedFields() {
+        Cours cours = new Cours(7, "Algèbre, \"avancée\"", "A1", "Dr. X", "Lundi", "08:00", null);
+
+        String line = CoursCsv.format(cours);
+        Cours parsed = CoursCsv.parse(line);
+
+        assertEquals("7,\"Algèbre, \"\"avancée\"\"\",A1,Dr. X,Lundi,08:00,", line);
+        assertEquals(7, parsed.getIdCours());
+        assertEquals("Algèbre, \"avancée\"", parsed.getNomCours());
+        assertNull(parsed.getHeureFin());
+    }
+
+    @Test
+    void lineBreaksAreFlattenedOnExport() {
+        String line = CoursCsv.format(new Cours(1, "Réseaux\nTP", "B2", "P", "Mardi", "10:00", "12:00"));
+
+        assertFalse(line.contains("\n"));
+        assertEquals("Réseaux TP", CoursCsv.parse(line).getNomCours());
+    }
+
+    @Test
+    void malformedLinesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CoursCsv.parse("1,A,B"));
+        assertThrows(IllegalArgumentException.class, () -> CoursCsv.parse("abc,A,B,C,D,E,F"));
+        assertThrows(IllegalArgumentException.class, () -> CoursCsv.parse("1,\"A,B,C,D,E,F"));
+        assertTrue(CoursCsv.isHeader(CoursCsv.HEADER));
+    }
+}
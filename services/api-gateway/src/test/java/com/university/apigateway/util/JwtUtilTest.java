@@ -0,0 +1,83 @@
+package com.university.apigateway.util;
+
+import com.university.apigateway.model.JwtPrincipal;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "dGhpc2lzYWpheWF0c2VjcmV0Zm9yaGp3dGhlcmVpc2Fsb25nc3RyaW5nZm9yaG1hY3NoYTI1NmtleQ";
+    private static final String OLD_SECRET = "b2xkc2VjcmV0b2xkc2VjcmV0b2xkc2VjcmV0b2xkc2VjcmV0b2xkc2VjcmV0";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "keyId", "primary");
+        ReflectionTestUtils.setField(jwtUtil, "previousKeys", "old=" + OLD_SECRET);
+        jwtUtil.init();
+    }
+
+    @Test
+    void parseTokenReturnsAllClaims() {
+        String token = token(new Date(System.currentTimeMillis() + 60_000));
+
+        Optional<JwtPrincipal> principal = jwtUtil.parseToken(token);
+
+        assertTrue(principal.isPresent());
+        assertEquals("alice", principal.get().getSubject());
+        assertEquals("42", principal.get().getUserId());
+        assertEquals("ADMIN", principal.get().getRole());
+        assertFalse(principal.get().isExpired());
+    }
+
+    @Test
+    void parseTokenRejectsExpiredOrTamperedTokens() {
+        assertTrue(jwtUtil.parseToken(token(new Date(System.currentTimeMillis() - 1_000))).isEmpty());
+
+        String token = token(new Date(System.currentTimeMillis() + 60_000));
+        assertTrue(jwtUtil.parseToken(token.substring(0, token.length() - 2) + "xx").isEmpty());
+        assertTrue(jwtUtil.parseToken("").isEmpty());
+    }
+
+    @Test
+    void parseTokenSelectsKeyFromKidHeader() {
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+
+        assertTrue(jwtUtil.parseToken(token("primary", SECRET, expiration)).isPresent());
+        assertTrue(jwtUtil.parseToken(token("old", OLD_SECRET, expiration)).isPresent());
+        assertTrue(jwtUtil.parseToken(token("unknown", OLD_SECRET, expiration)).isEmpty());
+        assertTrue(jwtUtil.parseToken(token("primary", OLD_SECRET, expiration)).isEmpty());
+    }
+
+    private String token(Date expiration) {
+        return Jwts.builder()
+                .subject("alice")
+                .claim("userId", "42")
+                .claim("role", "ADMIN")
+                .issuedAt(new Date())
+                .expiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+
+    private String token(String kid, String secret, Date expiration) {
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .subject("alice")
+                .expiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .compact();
+    }
+}
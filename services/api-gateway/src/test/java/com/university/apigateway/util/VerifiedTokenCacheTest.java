@@ -0,0 +1,55 @@
+package com.university.apigateway.util;
+
+import com.university.apigateway.model.JwtPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void repeatedTokenIsVerifiedOnlyOnce() {
+        JwtPrincipal principal = new JwtPrincipal("alice", "42", "ADMIN", new Date(System.currentTimeMillis() + 60_000));
+        when(jwtUtil.parseToken("token")).thenReturn(Optional.of(principal));
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, registry, true, 100);
+
+        assertSame(principal, cache.verify("token").orElseThrow());
+        assertSame(principal, cache.verify("token").orElseThrow());
+
+        verify(jwtUtil, times(1)).parseToken("token");
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void invalidTokensAreNotCached() {
+        when(jwtUtil.parseToken("bad")).thenReturn(Optional.empty());
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, registry, true, 100);
+
+        assertTrue(cache.verify("bad").isEmpty());
+        assertTrue(cache.verify("bad").isEmpty());
+
+        verify(jwtUtil, times(2)).parseToken("bad");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void expiredEntriesAreNotServed() {
+        JwtPrincipal principal = new JwtPrincipal("alice", "42", "ADMIN", new Date(System.currentTimeMillis() - 1));
+        when(jwtUtil.parseToken("old")).thenReturn(Optional.of(principal));
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, registry, true, 100);
+
+        cache.verify("old");
+        cache.verify("old");
+
+        verify(jwtUtil, times(2)).parseToken("old");
+    }
+}
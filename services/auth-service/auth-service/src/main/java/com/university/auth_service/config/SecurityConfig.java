@@ -1,8 +1,11 @@
 package com.university.auth_service.config;
 
+import com.university.auth_service.security.BcryptCalibrator;
+import com.university.auth_service.security.BoundedPasswordEncoder;
 import com.university.auth_service.security.CustomUserDetailsService;
 import com.university.auth_service.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,24 +17,29 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
-    private final CustomUserDetailsService userDetailsService;
+    private final UserDetailsService userDetailsService; // CachingUserDetailsService (@Primary)
+    private final CustomUserDetailsService customUserDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CorsConfigurationSource corsConfigurationSource;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider)
+            throws Exception {
         http
                 // ✅ Disable CSRF for REST APIs
                 .csrf(AbstractHttpConfigurer::disable)
@@ -59,7 +67,7 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
                 // ✅ Authentication Provider
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
 
                 // ✅ JWT FILTER BEFORE USER/PASSWORD FILTER
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -69,10 +77,12 @@ public class SecurityConfig {
 
     // ✅ DAO AUTH PROVIDER
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Re-hache au login les mots de passe stockés avec un coût inférieur au coût courant
+        authProvider.setUserDetailsPasswordService(customUserDetailsService);
         return authProvider;
     }
 
@@ -82,9 +92,18 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
-    // ✅ PASSWORD ENCODER
+    // ✅ PASSWORD ENCODER (pool de hachage borné, coût bcrypt calibré au démarrage)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${app.password-hashing.calibrate:true}") boolean calibrate,
+            @Value("${app.password-hashing.target-time:250ms}") Duration targetTime,
+            @Value("${app.password-hashing.strength:10}") int strength,
+            @Value("${app.password-hashing.max-strength:14}") int maxStrength,
+            @Value("${app.password-hashing.threads:0}") int threads,
+            @Value("${app.password-hashing.queue-capacity:32}") int queueCapacity,
+            @Value("${app.password-hashing.max-wait:5s}") Duration maxWait) {
+        int cost = calibrate ? BcryptCalibrator.calibrate(targetTime, strength, maxStrength) : strength;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(cost), poolSize, queueCapacity, maxWait);
     }
 }
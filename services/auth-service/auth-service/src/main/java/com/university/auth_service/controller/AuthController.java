@@ -5,10 +5,13 @@ import com.university.auth_service.dto.LoginRequest;
 import com.university.auth_service.dto.RegisterRequest;
 import com.university.auth_service.dto.UpdatePasswordRequest;
 import com.university.auth_service.dto.UserDTO;
+import com.university.auth_service.entity.Role;
 import com.university.auth_service.entity.User;
 import com.university.auth_service.entity.VerificationToken;
+import com.university.auth_service.exception.AuthException;
 import com.university.auth_service.repository.UserRepository;
 import com.university.auth_service.repository.VerificationTokenRepository;
+import com.university.auth_service.security.JwtUserPrincipal;
 import com.university.auth_service.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -74,6 +77,18 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
+        // En mode stateless le profil est déjà dans le token : pas d'aller-retour MongoDB.
+        // Le rôle du principal est celui vérifié par JwtAuthenticationFilter via UserStatusCache.
+        if (authentication.getPrincipal() instanceof JwtUserPrincipal principal && principal.hasProfile()) {
+            return ResponseEntity.ok(new UserDTO(
+                    principal.getUserId(),
+                    principal.getUsername(),
+                    principal.getEmail(),
+                    principal.getFirstName(),
+                    principal.getLastName(),
+                    Role.valueOf(principal.getRole())));
+        }
+
         return userRepository.findByUsername(authentication.getName())
                 .map(user -> {
                     UserDTO userDTO = new UserDTO(
@@ -112,7 +127,8 @@ public class AuthController {
         try {
             authService.updatePassword(authentication.getName(), request);
             return ResponseEntity.ok("Password updated successfully");
-        } catch (Exception e) {
+        } catch (AuthException e) {
+            // PasswordHashingBusyException remonte au GlobalExceptionHandler (429)
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
@@ -0,0 +1,35 @@
+package com.university.auth_service.controller;
+
+import com.university.auth_service.service.impl.EmailOutboxDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/auth/mail/outbox")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class MailOutboxController {
+
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(emailOutboxDispatcher.stats());
+    }
+
+    // Envoie tout de suite les emails en attente (ex. avant un redéploiement)
+    @PostMapping("/drain")
+    public ResponseEntity<Map<String, Object>> drain(@RequestParam(defaultValue = "30") long timeoutSeconds) {
+        int sent = emailOutboxDispatcher.drain(Duration.ofSeconds(timeoutSeconds));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sent", sent);
+        body.putAll(emailOutboxDispatcher.stats());
+        return ResponseEntity.ok(body);
+    }
+}
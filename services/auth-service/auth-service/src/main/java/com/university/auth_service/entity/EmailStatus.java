@@ -0,0 +1,8 @@
+package com.university.auth_service.entity;
+
+public enum EmailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,10 @@
+package com.university.auth_service.exception;
+
+/**
+ * Levée quand le pool de hachage des mots de passe est saturé (réponse HTTP 429)
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
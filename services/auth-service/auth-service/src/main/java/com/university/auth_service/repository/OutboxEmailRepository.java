@@ -0,0 +1,9 @@
+package com.university.auth_service.repository;
+
+import com.university.auth_service.entity.EmailStatus;
+import com.university.auth_service.entity.OutboxEmail;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface OutboxEmailRepository extends MongoRepository<OutboxEmail, String> {
+    long countByStatus(EmailStatus status);
+}
@@ -0,0 +1,49 @@
+package com.university.auth_service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Choisit au démarrage le coût bcrypt qui donne un temps de hachage proche de la cible sur cette machine
+ */
+@Slf4j
+public final class BcryptCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "Calibration.2024!";
+
+    private BcryptCalibrator() {
+    }
+
+    /**
+     * @return le coût le plus élevé dont le temps de hachage reste sous la cible (au moins minStrength)
+     */
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long elapsed = measure(strength, strength == minStrength);
+            log.debug("bcrypt coût {} : {} ms", strength, elapsed);
+            if (elapsed > target.toMillis()) {
+                break;
+            }
+            chosen = strength;
+            // Chaque incrément double le coût : inutile de mesurer si le suivant dépasse forcément
+            if (elapsed * 2 > target.toMillis()) {
+                break;
+            }
+        }
+        log.info("Coût bcrypt calibré à {} (cible {} ms)", chosen, target.toMillis());
+        return chosen;
+    }
+
+    private static long measure(int strength, boolean warmUp) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        if (warmUp) {
+            encoder.encode(SAMPLE_PASSWORD);
+        }
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+}
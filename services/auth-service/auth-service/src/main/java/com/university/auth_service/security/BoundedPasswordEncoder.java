@@ -0,0 +1,121 @@
+package com.university.auth_service.security;
+
+import com.university.auth_service.exception.PasswordHashingBusyException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécute le hachage (coûteux en CPU) sur un pool de threads dédié et borné.
+ * Quand la file est pleine, la requête est refusée immédiatement (429) au lieu
+ * d'occuper tous les threads Tomcat et d'affamer les endpoints légers.
+ *
+ * Une place (thread ou file) reste prise jusqu'à la fin réelle du hachage : BCrypt ignore
+ * l'interruption, un hachage abandonné après maxWait continue donc de compter dans la charge.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    // Une par thread et par place dans la file, rendue quand la tâche se termine vraiment
+    private final Semaphore permits;
+    private final int capacity;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxWait) {
+        this.delegate = delegate;
+        this.maxWait = maxWait;
+        this.capacity = threads + queueCapacity;
+        this.permits = new Semaphore(capacity);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "password-hashing-" + threadCount.incrementAndGet()));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Hachages en cours ou en attente, y compris ceux dont l'appelant a abandonné l'attente
+     */
+    public int getInFlight() {
+        return capacity - permits.availablePermits();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        if (!permits.tryAcquire()) {
+            throw new PasswordHashingBusyException("Trop de requêtes, veuillez réessayer dans un instant");
+        }
+        // Pas de cancel : une tâche abandonnée encore en file est sautée, une tâche lancée va jusqu'au bout,
+        // et dans les deux cas rend sa place en se terminant
+        AtomicBoolean abandoned = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    return abandoned.get() ? null : task.call();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw new PasswordHashingBusyException("Trop de requêtes, veuillez réessayer dans un instant");
+        }
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandoned.set(true);
+            throw new PasswordHashingBusyException("Trop de requêtes, veuillez réessayer dans un instant");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandoned.set(true);
+            throw new IllegalStateException("Hachage du mot de passe interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Erreur lors du hachage du mot de passe", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
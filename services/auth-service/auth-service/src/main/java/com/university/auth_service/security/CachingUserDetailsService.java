@@ -0,0 +1,70 @@
+package com.university.auth_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Décorateur de {@link CustomUserDetailsService} qui garde les utilisateurs en mémoire
+ * pour éviter une lecture MongoDB à chaque connexion. Les entrées sont invalidées
+ * dès qu'un utilisateur est sauvegardé (voir {@link UserCacheInvalidationListener}).
+ */
+@Service
+@Primary
+public class CachingUserDetailsService implements UserDetailsService {
+
+    private final CustomUserDetailsService delegate;
+    private final boolean enabled;
+    private final Cache<String, UserDetails> cache;
+    private final Timer loadTimer;
+
+    public CachingUserDetailsService(CustomUserDetailsService delegate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.user-cache.enabled:true}") boolean enabled,
+                                     @Value("${app.user-cache.max-size:50000}") long maxSize,
+                                     @Value("${app.user-cache.ttl:10m}") Duration ttl) {
+        this.delegate = delegate;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.loadTimer = Timer.builder("auth.user-details.load")
+                .description("Temps de chargement d'un utilisateur depuis MongoDB")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (!enabled) {
+            return loadTimer.record(() -> delegate.loadUserByUsername(username));
+        }
+        UserDetails cached = cache.get(username, key -> loadTimer.record(() -> delegate.loadUserByUsername(key)));
+        // Copie : Spring Security efface le mot de passe de l'objet retourné après l'authentification
+        return User.withUserDetails(cached).build();
+    }
+
+    /**
+     * Retire un utilisateur du cache après une modification
+     */
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
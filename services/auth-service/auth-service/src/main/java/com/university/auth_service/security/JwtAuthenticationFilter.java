@@ -1,12 +1,21 @@
 package com.university.auth_service.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.university.auth_service.exception.ErrorResponse;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,6 +25,9 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -24,6 +36,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Construit l'authentification depuis les claims du token au lieu de recharger l'utilisateur
+     */
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean stateless;
+
+    /**
+     * En mode stateless, vérifie tout de même que le compte est toujours actif et reprend son rôle
+     * courant (via un cache). Désactivé, le rôle du token fait foi jusqu'à son expiration (jwt.expiration).
+     */
+    @Value("${jwt.stateless.status-check.enabled:true}")
+    private boolean statusCheck;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -32,17 +59,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = getTokenFromRequest(request);
         log.debug("JWT token extracted: {}", token != null ? "present" : "missing");
 
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-            String username = jwtTokenProvider.getUsernameFromToken(token);
+        // Une seule vérification de signature : les claims sont réutilisées ensuite
+        Optional<Claims> claims = StringUtils.hasText(token) ? jwtTokenProvider.parseOnce(token) : Optional.empty();
+
+        if (claims.isPresent()) {
+            String username = claims.get().getSubject();
             log.debug("Valid token for user: {}", username);
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities());
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            UsernamePasswordAuthenticationToken authentication;
+            try {
+                authentication = stateless
+                        ? buildFromClaims(claims.get())
+                        : buildFromUserDetails(username);
+            } catch (DataAccessException e) {
+                // État du compte inconnu (MongoDB indisponible) : on refuse plutôt que de laisser passer
+                log.warn("Vérification du compte {} impossible : {}", username, e.getMessage());
+                writeUnavailable(request, response);
+                return;
+            }
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            log.debug("Authentication set for user: {}", username);
+            if (authentication != null) {
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                log.debug("Authentication set for user: {}", username);
+            } else {
+                log.debug("Account disabled or removed for user: {}", username);
+            }
         } else {
             log.debug("Invalid or missing token");
         }
@@ -50,6 +92,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UsernamePasswordAuthenticationToken buildFromUserDetails(String username) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private UsernamePasswordAuthenticationToken buildFromClaims(Claims claims) {
+        String role = claims.get("role", String.class);
+        if (statusCheck) {
+            // Rôle courant du compte : un changement de rôle s'applique sans attendre l'expiration du token
+            UserStatusCache.Status status = userStatusCache.status(claims.getSubject());
+            role = status.active() ? status.role() : null;
+        }
+        if (role == null) {
+            return null;
+        }
+        JwtUserPrincipal principal = new JwtUserPrincipal(
+                claims.getSubject(),
+                claims.get("userId", String.class),
+                role,
+                claims.get("email", String.class),
+                claims.get("firstName", String.class),
+                claims.get("lastName", String.class));
+        return new UsernamePasswordAuthenticationToken(principal, null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
+    private void writeUnavailable(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponse error = new ErrorResponse(LocalDateTime.now(), HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable", "Vérification du compte momentanément impossible, veuillez réessayer",
+                request.getRequestURI());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), error);
+    }
+
     private String getTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -5,11 +5,18 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
@@ -17,17 +24,72 @@ public class JwtTokenProvider {
     @Value("${jwt.secret}")
     private String secretKey;
 
+    @Value("${jwt.key-id:primary}")
+    private String keyId;
+
+    /**
+     * Anciennes clés encore acceptées pendant une rotation, au format "kid=secret,kid2=secret2"
+     */
+    @Value("${jwt.previous-keys:}")
+    private String previousKeys;
+
     @Value("${jwt.expiration}")
     private Long validityInMilliseconds;
 
+    // Construits une seule fois au démarrage : immuables et partagés entre les threads
+    private SecretKey signingKey;
+    private Map<String, SecretKey> verificationKeys;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = getSigningKey(secretKey);
+
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        keys.put(keyId, signingKey);
+        if (StringUtils.hasText(previousKeys)) {
+            for (String entry : previousKeys.split(",")) {
+                String[] parts = entry.trim().split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalStateException("Entrée jwt.previous-keys invalide : " + entry);
+                }
+                keys.putIfAbsent(parts[0].trim(), getSigningKey(parts[1].trim()));
+            }
+        }
+        this.verificationKeys = Collections.unmodifiableMap(keys);
+
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
     /**
      * Génère la clé de signature à partir de la clé secrète
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+    private SecretKey getSigningKey(String secret) {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    /**
+     * Sélectionne la clé de vérification d'après l'en-tête "kid" (clé courante si absent)
+     */
+    private Key resolveKey(String kid) {
+        if (kid == null) {
+            return signingKey;
+        }
+        SecretKey key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new SecurityException("Clé de signature inconnue : " + kid);
+        }
+        return key;
+    }
+
     /**
      * Génère un token JWT pour un utilisateur
      */
@@ -36,26 +98,25 @@ public class JwtTokenProvider {
         Date expiryDate = new Date(now.getTime() + validityInMilliseconds);
 
         return Jwts.builder()
+                .header().keyId(keyId).and()
                 .subject(user.getUsername())
                 .claim("role", user.getRole().toString())
                 .claim("userId", user.getId())
                 .claim("email", user.getEmail())
+                .claim("firstName", user.getFirstName())
+                .claim("lastName", user.getLastName())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * Valide un token JWT
+     * Vérifie le token une seule fois et retourne toutes ses claims
      */
-    public boolean validateToken(String token) {
+    public Optional<Claims> parseOnce(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return Optional.of(parser.parseSignedClaims(token).getPayload());
         } catch (SecurityException | MalformedJwtException ex) {
             System.err.println("JWT invalide: " + ex.getMessage());
         } catch (ExpiredJwtException ex) {
@@ -65,55 +126,42 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             System.err.println("JWT vide: " + ex.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Valide un token JWT
+     */
+    public boolean validateToken(String token) {
+        return parseOnce(token).isPresent();
     }
 
     /**
      * Extrait le username depuis le token
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        return parseClaims(token).getSubject();
     }
 
     /**
      * Extrait l'ID utilisateur depuis le token
      */
     public String getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("userId", String.class);
+        return parseClaims(token).get("userId", String.class);
     }
 
     /**
      * Extrait le rôle depuis le token
      */
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("role", String.class);
+        return parseClaims(token).get("role", String.class);
     }
 
     /**
      * Extrait la date d'expiration du token
      */
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getExpiration();
+        return parseClaims(token).getExpiration();
     }
 
     /**
@@ -130,4 +178,8 @@ public class JwtTokenProvider {
     public Long getValidityInMilliseconds() {
         return validityInMilliseconds;
     }
+
+    private Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
 }
@@ -0,0 +1,34 @@
+package com.university.auth_service.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.security.Principal;
+
+/**
+ * Utilisateur authentifié reconstruit à partir des claims du token, sans accès à la base
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class JwtUserPrincipal implements Principal {
+    private final String username;
+    private final String userId;
+    private final String role;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    /**
+     * Les tokens émis avant l'ajout des claims de profil ne contiennent pas le nom
+     */
+    public boolean hasProfile() {
+        return userId != null && role != null && email != null && firstName != null && lastName != null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.university.auth_service.security;
+
+import com.university.auth_service.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalide les caches d'utilisateurs à chaque sauvegarde d'un {@link User}
+ * (changement de mot de passe, activation du compte, changement de rôle...)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserCacheInvalidationListener extends AbstractMongoEventListener<User> {
+
+    private final CachingUserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        String username = event.getSource().getUsername();
+        userDetailsService.evict(username);
+        userStatusCache.evict(username);
+        log.debug("User cache invalidated for: {}", username);
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        // Seul l'identifiant est connu après une suppression : on vide tout
+        userDetailsService.evictAll();
+        userStatusCache.evictAll();
+    }
+}
@@ -0,0 +1,69 @@
+package com.university.auth_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.university.auth_service.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Petit cache de l'état des comptes (activé, rôle courant) utilisé en mode stateless :
+ * un compte désactivé est rejeté et un changement de rôle appliqué au plus tard après
+ * la fenêtre de péremption configurée, sans attendre l'expiration du token.
+ */
+@Component
+public class UserStatusCache {
+
+    private static final Status INACTIVE = new Status(false, null);
+
+    private final UserRepository userRepository;
+    private final Cache<String, Status> statuses;
+
+    public UserStatusCache(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${jwt.stateless.status-check.staleness:60s}") Duration staleness,
+                           @Value("${jwt.stateless.status-check.max-entries:10000}") long maxEntries) {
+        this.userRepository = userRepository;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(staleness)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, statuses, "user-statuses");
+    }
+
+    /**
+     * État du compte, en interrogeant MongoDB seulement si l'entrée est absente ou périmée
+     */
+    public Status status(String username) {
+        return statuses.get(username, key -> userRepository.findByUsername(key)
+                .filter(user -> Boolean.TRUE.equals(user.getEnabled()))
+                .map(user -> new Status(true, user.getRole() == null ? null : user.getRole().name()))
+                .orElse(INACTIVE));
+    }
+
+    /**
+     * Indique si le compte existe et est activé
+     */
+    public boolean isActive(String username) {
+        return status(username).active();
+    }
+
+    /**
+     * Oublie l'état d'un compte après une modification
+     */
+    public void evict(String username) {
+        statuses.invalidate(username);
+    }
+
+    public void evictAll() {
+        statuses.invalidateAll();
+    }
+
+    public record Status(boolean active, String role) {
+    }
+}
@@ -35,6 +35,7 @@ public class AuthServiceImpl implements AuthService {
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
+    private final LoginMetadataWriter loginMetadataWriter;
 
     @Override
     public AuthResponse authenticate(LoginRequest request) {
@@ -52,8 +53,8 @@ public class AuthServiceImpl implements AuthService {
             throw new AuthException("Veuillez activer votre compte via le lien envoyé par email");
         }
 
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        // Écriture différée et partielle : le login n'attend pas MongoDB
+        loginMetadataWriter.recordLogin(user.getId(), LocalDateTime.now());
 
         String token = jwtTokenProvider.generateToken(user);
         UserDTO userDTO = convertToDTO(user);
@@ -98,16 +99,8 @@ public class AuthServiceImpl implements AuthService {
         verificationTokenRepository.save(verificationToken);
         log.info("Verification token saved");
 
-        // Envoyer le lien de confirmation
-        try {
-            log.debug("Sending activation email to: {}", savedUser.getEmail());
-            emailService.sendActivationEmail(savedUser.getEmail(), savedUser.getFirstName(), token);
-            log.info("Activation email sent successfully");
-        } catch (Exception e) {
-            log.error("Failed to send activation email", e);
-            // Loger l'erreur sans bloquer l'inscription
-            e.printStackTrace();
-        }
+        // Mettre le lien de confirmation en file d'envoi (l'envoi SMTP se fait en arrière-plan)
+        emailService.sendActivationEmail(savedUser.getEmail(), savedUser.getFirstName(), token);
 
         log.info("Registration completed successfully for user: {}", savedUser.getUsername());
         return convertToDTO(savedUser);
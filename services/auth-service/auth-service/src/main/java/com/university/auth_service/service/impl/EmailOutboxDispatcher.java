@@ -0,0 +1,283 @@
+package com.university.auth_service.service.impl;
+
+import com.university.auth_service.entity.EmailStatus;
+import com.university.auth_service.entity.OutboxEmail;
+import com.university.auth_service.repository.OutboxEmailRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Envoie les emails de l'outbox par lots, avec un pool de workers borné.
+ * Chaque lot réutilise une seule connexion SMTP ; les échecs sont retentés avec un délai exponentiel.
+ * Les emails envoyés sont supprimés après app.email.outbox.sent-retention.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailOutboxDispatcher {
+
+    private final MongoTemplate mongoTemplate;
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final JavaMailSender mailSender;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.email.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.workers:2}")
+    private int workers;
+
+    @Value("${app.email.outbox.queue-capacity:10}")
+    private int queueCapacity;
+
+    @Value("${app.email.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    /**
+     * Durée pendant laquelle un email réservé par un worker n'est pas repris par un autre
+     */
+    @Value("${app.email.outbox.lease:5m}")
+    private Duration lease;
+
+    @Value("${app.email.outbox.sent-retention:7d}")
+    private Duration sentRetention;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "mail-outbox-" + threadCount.incrementAndGet()));
+        // Sur un worker de l'outbox : si MongoDB est injoignable, le démarrage n'attend pas la sélection du serveur
+        executor.execute(this::ensureIndexes);
+    }
+
+    /**
+     * Index de claimBatch (status + nextAttemptAt) : l'auto-création des index étant désactivée,
+     * il est créé ici au démarrage (sans effet s'il existe déjà)
+     */
+    void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(OutboxEmail.class).ensureIndex(new Index()
+                    .on("status", Sort.Direction.ASC)
+                    .on("nextAttemptAt", Sort.Direction.ASC)
+                    .named("status_nextAttemptAt"));
+        } catch (DataAccessException e) {
+            // L'outbox fonctionne sans index, seulement plus lentement : on ne bloque pas le démarrage
+            log.warn("Impossible de créer l'index de l'outbox : {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Arrêt du dispatcher d'emails avant la fin des envois en cours");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Réserve les emails dus et les confie aux workers tant que la file d'attente a de la place
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval:1000}")
+    public void poll() {
+        while (executor.getQueue().remainingCapacity() > 0 && !executor.isShutdown()) {
+            List<OutboxEmail> batch = claimBatch();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                executor.execute(() -> sendBatch(batch));
+            } catch (RejectedExecutionException e) {
+                release(batch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Envoie immédiatement, sur le thread appelant, tous les emails dus
+     *
+     * @return le nombre d'emails envoyés
+     */
+    public int drain(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int sent = 0;
+        while (System.nanoTime() < deadline) {
+            List<OutboxEmail> batch = claimBatch();
+            if (batch.isEmpty()) {
+                break;
+            }
+            sent += sendBatch(batch);
+        }
+        return sent;
+    }
+
+    /**
+     * Supprime les emails envoyés depuis plus de sent-retention : la collection ne garde que l'historique récent
+     *
+     * @return le nombre d'emails supprimés
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.purge-interval:3600000}",
+            initialDelayString = "${app.email.outbox.purge-interval:3600000}")
+    public long purgeSent() {
+        Query expired = new Query(where("status").is(EmailStatus.SENT)
+                .and("sentAt").lt(LocalDateTime.now().minus(sentRetention)));
+        long removed = mongoTemplate.remove(expired, OutboxEmail.class).getDeletedCount();
+        if (removed > 0) {
+            log.info("{} email(s) envoyé(s) supprimé(s) de l'outbox", removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Nombre d'emails par statut, pour la supervision
+     */
+    public Map<String, Object> stats() {
+        return Map.of(
+                "pending", outboxEmailRepository.countByStatus(EmailStatus.PENDING),
+                "sending", outboxEmailRepository.countByStatus(EmailStatus.SENDING),
+                "failed", outboxEmailRepository.countByStatus(EmailStatus.FAILED),
+                "activeWorkers", executor.getActiveCount(),
+                "queuedBatches", executor.getQueue().size());
+    }
+
+    List<OutboxEmail> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        // Un email SENDING dont la réservation a expiré (worker arrêté) est repris
+        Query due = new Query(where("status").in(EmailStatus.PENDING, EmailStatus.SENDING)
+                .and("nextAttemptAt").lte(now))
+                .with(Sort.by("nextAttemptAt"));
+        Update claim = new Update()
+                .set("status", EmailStatus.SENDING)
+                .set("nextAttemptAt", now.plus(lease));
+
+        List<OutboxEmail> batch = new ArrayList<>();
+        while (batch.size() < batchSize) {
+            OutboxEmail email = mongoTemplate.findAndModify(due, claim,
+                    FindAndModifyOptions.options().returnNew(true), OutboxEmail.class);
+            if (email == null) {
+                break;
+            }
+            batch.add(email);
+        }
+        return batch;
+    }
+
+    int sendBatch(List<OutboxEmail> batch) {
+        // MimeMessage n'a pas d'equals : chaque échec est retrouvé par son objet, même pour deux emails identiques
+        List<OutboxEmail> prepared = new ArrayList<>(batch.size());
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (OutboxEmail email : batch) {
+            try {
+                messages.add(toMessage(email));
+                prepared.add(email);
+            } catch (MessagingException e) {
+                markFailed(email, e);
+            }
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        MailException batchFailure = null;
+        if (!messages.isEmpty()) {
+            try {
+                // JavaMailSenderImpl envoie tout le tableau sur une seule connexion SMTP
+                mailSender.send(messages.toArray(MimeMessage[]::new));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                batchFailure = failures.isEmpty() ? e : null;
+            } catch (MailException e) {
+                batchFailure = e;
+            }
+        }
+
+        int sent = 0;
+        for (int i = 0; i < prepared.size(); i++) {
+            OutboxEmail email = prepared.get(i);
+            Exception failure = batchFailure != null ? batchFailure : failures.get(messages.get(i));
+            if (failure == null) {
+                email.setStatus(EmailStatus.SENT);
+                email.setSentAt(LocalDateTime.now());
+                email.setLastError(null);
+                sent++;
+            } else {
+                markFailed(email, failure);
+            }
+        }
+        outboxEmailRepository.saveAll(batch);
+        log.info("Lot d'emails traité : {} envoyé(s), {} en échec", sent, batch.size() - sent);
+        return sent;
+    }
+
+    private void markFailed(OutboxEmail email, Exception failure) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(failure.getMessage());
+        if (attempts >= maxAttempts) {
+            email.setStatus(EmailStatus.FAILED);
+            log.error("Abandon de l'envoi à {} après {} tentatives : {}", email.getRecipient(), attempts,
+                    failure.getMessage());
+        } else {
+            email.setStatus(EmailStatus.PENDING);
+            email.setNextAttemptAt(LocalDateTime.now().plus(initialBackoff.multipliedBy(1L << (attempts - 1))));
+            log.warn("Échec de l'envoi à {} (tentative {}) : {}", email.getRecipient(), attempts, failure.getMessage());
+        }
+    }
+
+    private void release(List<OutboxEmail> batch) {
+        batch.forEach(email -> {
+            email.setStatus(EmailStatus.PENDING);
+            email.setNextAttemptAt(LocalDateTime.now());
+        });
+        outboxEmailRepository.saveAll(batch);
+    }
+
+    private MimeMessage toMessage(OutboxEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message);
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody());
+        return message;
+    }
+}
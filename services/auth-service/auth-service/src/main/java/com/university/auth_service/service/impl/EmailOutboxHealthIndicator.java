@@ -0,0 +1,21 @@
+package com.university.auth_service.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expose l'état de l'outbox d'emails sur /actuator/health
+ */
+@Component("emailOutbox")
+@RequiredArgsConstructor
+public class EmailOutboxHealthIndicator implements HealthIndicator {
+
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Override
+    public Health health() {
+        return Health.up().withDetails(emailOutboxDispatcher.stats()).build();
+    }
+}
@@ -1,34 +1,26 @@
 package com.university.auth_service.service.impl;
 
+import com.university.auth_service.entity.OutboxEmail;
+import com.university.auth_service.repository.OutboxEmailRepository;
 import com.university.auth_service.service.EmailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+/**
+ * Prépare les emails et les dépose dans l'outbox MongoDB.
+ * L'envoi SMTP est fait en arrière-plan par {@link EmailOutboxDispatcher}.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService {
 
-    private final JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
-
-    @Value("${app.email.from-name:Université SOA}")
-    private String fromName;
+    private final OutboxEmailRepository outboxEmailRepository;
 
     @Override
     public void sendActivationEmail(String to, String firstName, String token) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject("Activation de votre compte - Université SOA");
-
             String link = "http://localhost:8081/api/auth/confirm?token=" + token;
             String emailBody = String.format(
                     "Bonjour %s,\n\n" +
@@ -40,11 +32,10 @@ public class EmailServiceImpl implements EmailService {
                     firstName, link
             );
 
-            message.setText(emailBody);
-            mailSender.send(message);
-            log.info("Email d'activation envoyé avec succès à : {}", to);
+            outboxEmailRepository.save(new OutboxEmail(to, "Activation de votre compte - Université SOA", emailBody));
+            log.info("Email d'activation mis en file d'attente pour : {}", to);
         } catch (Exception e) {
-            log.error("Erreur lors de l'envoi de l'email d'activation à {} : {}", to, e.getMessage(), e);
+            log.error("Erreur lors de la mise en file de l'email d'activation pour {} : {}", to, e.getMessage(), e);
         }
     }
 }
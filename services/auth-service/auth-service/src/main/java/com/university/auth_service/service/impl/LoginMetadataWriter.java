@@ -0,0 +1,137 @@
+package com.university.auth_service.service.impl;
+
+import com.university.auth_service.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Écriture différée de la date de dernière connexion : les mises à jour sont regroupées
+ * par utilisateur puis envoyées en un seul bulk "$set" partiel, hors du chemin de login.
+ * La file est bornée (app.login-metadata.max-pending) : si MongoDB reste indisponible, les
+ * utilisateurs dont la dernière connexion est la plus ancienne sont abandonnés et comptés.
+ */
+@Slf4j
+@Component
+public class LoginMetadataWriter {
+
+    private final MongoTemplate mongoTemplate;
+    private final int flushThreshold;
+    private final int maxPending;
+    private final Counter dropped;
+
+    // userId -> dernière date de connexion, du plus ancien au plus récent ; accès sous synchronized (pending)
+    private final Map<String, LocalDateTime> pending = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LocalDateTime> eldest) {
+            if (size() > maxPending) {
+                dropped.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(
+            r -> new Thread(r, "login-metadata-writer"));
+
+    public LoginMetadataWriter(MongoTemplate mongoTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.login-metadata.flush-threshold:500}") int flushThreshold,
+                               @Value("${app.login-metadata.max-pending:50000}") int maxPending) {
+        this.mongoTemplate = mongoTemplate;
+        this.flushThreshold = flushThreshold;
+        this.maxPending = maxPending;
+        Gauge.builder("auth.login-metadata.queue", this, LoginMetadataWriter::getQueueDepth)
+                .description("Mises à jour de lastLogin en attente d'écriture")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("auth.login-metadata.dropped")
+                .description("Mises à jour de lastLogin abandonnées, file pleine")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enregistre une connexion ; l'écriture MongoDB se fait plus tard
+     */
+    public void recordLogin(String userId, LocalDateTime loginTime) {
+        int size;
+        synchronized (pending) {
+            // Retirée puis remise : l'utilisateur passe en fin de file, la plus récente des deux dates est gardée
+            LocalDateTime previous = pending.remove(userId);
+            pending.put(userId, previous != null && previous.isAfter(loginTime) ? previous : loginTime);
+            size = pending.size();
+        }
+        if (size >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    flushScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    public int getQueueDepth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.login-metadata.flush-interval:5000}")
+    public synchronized void flush() {
+        List<Map.Entry<String, LocalDateTime>> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            // Copie figée des entrées : la map continue d'être modifiée par recordLogin()
+            batch = pending.entrySet().stream()
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                    .toList();
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        for (Map.Entry<String, LocalDateTime> entry : batch) {
+            bulk.updateOne(new Query(where("_id").is(entry.getKey())), new Update().set("lastLogin", entry.getValue()));
+        }
+
+        try {
+            bulk.execute();
+            // Ne retire que les valeurs écrites : une connexion arrivée pendant l'écriture reste en attente
+            synchronized (pending) {
+                batch.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+            }
+            log.debug("lastLogin mis à jour pour {} utilisateur(s)", batch.size());
+        } catch (Exception e) {
+            log.error("Échec de l'écriture de lastLogin pour {} utilisateur(s) : {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+}
@@ -0,0 +1,65 @@
+package com.university.auth_service.security;
+
+import com.university.auth_service.exception.PasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    // Comme BCrypt, ignore l'interruption et ne rend la main qu'une fois le calcul fini
+    private final PasswordEncoder slow = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            boolean done = false;
+            while (!done) {
+                try {
+                    done = release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                    // on continue, comme un hachage en cours
+                }
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    };
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 1, Duration.ofMillis(50));
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void abandonedHashKeepsItsPlaceUntilItReallyFinishes() throws InterruptedException {
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("a"));
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("b"));
+        // Les deux appelants ont abandonné mais le premier hachage tourne toujours : plus aucune place
+        assertEquals(2, encoder.getInFlight());
+        long start = System.nanoTime();
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("c"));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50), "refus sans attendre maxWait");
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (encoder.getInFlight() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, encoder.getInFlight());
+        assertEquals("hash:d", encoder.encode("d"));
+    }
+}
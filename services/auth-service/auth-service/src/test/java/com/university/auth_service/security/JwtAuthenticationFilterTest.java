@@ -0,0 +1,78 @@
+package com.university.auth_service.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private final JwtTokenProvider tokenProvider = mock(JwtTokenProvider.class);
+    private final UserStatusCache statusCache = mock(UserStatusCache.class);
+    private final FilterChain chain = mock(FilterChain.class);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenProvider,
+            mock(UserDetailsService.class), statusCache, new ObjectMapper().findAndRegisterModules());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        ReflectionTestUtils.setField(filter, "statusCheck", true);
+        when(tokenProvider.parseOnce("token"))
+                .thenReturn(Optional.of(Jwts.claims().subject("alice").add("role", "ADMIN").build()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void unreachableUserStoreIsAServiceUnavailable() throws Exception {
+        when(statusCache.status("alice")).thenThrow(new DataAccessResourceFailureException("MongoDB injoignable"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("5", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"path\":\"/api/users/me\""));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void activeAccountIsAuthenticatedWithItsCurrentRole() throws Exception {
+        when(statusCache.status("alice")).thenReturn(new UserStatusCache.Status(true, "STUDENT"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("ROLE_STUDENT", SecurityContextHolder.getContext().getAuthentication()
+                .getAuthorities().iterator().next().getAuthority());
+        verify(chain).doFilter(request, response);
+    }
+}
@@ -0,0 +1,143 @@
+package com.university.auth_service.service.impl;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.mongodb.client.result.DeleteResult;
+import com.university.auth_service.entity.EmailStatus;
+import com.university.auth_service.entity.OutboxEmail;
+import com.university.auth_service.repository.OutboxEmailRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final OutboxEmailRepository repository = mock(OutboxEmailRepository.class);
+    private final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        dispatcher = new EmailOutboxDispatcher(mongoTemplate, repository, mailSender);
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@universite.tn");
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofSeconds(30));
+    }
+
+    @Test
+    void sendBatchDeliversAllMessagesOverSmtp() {
+        List<OutboxEmail> batch = List.of(
+                new OutboxEmail("alice@universite.tn", "Activation", "Bonjour Alice"),
+                new OutboxEmail("bob@universite.tn", "Activation", "Bonjour Bob"));
+
+        int sent = dispatcher.sendBatch(batch);
+
+        assertEquals(2, sent);
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertTrue(batch.stream().allMatch(email -> email.getStatus() == EmailStatus.SENT));
+    }
+
+    @Test
+    void sendBatchSchedulesRetryWhenServerIsUnreachable() {
+        mailSender.setPort(1);
+        OutboxEmail email = new OutboxEmail("alice@universite.tn", "Activation", "Bonjour Alice");
+
+        int sent = dispatcher.sendBatch(List.of(email));
+
+        assertEquals(0, sent);
+        assertEquals(EmailStatus.PENDING, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertTrue(email.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+    }
+
+    @Test
+    void sendBatchGivesUpAfterMaxAttempts() {
+        mailSender.setPort(1);
+        OutboxEmail email = new OutboxEmail("alice@universite.tn", "Activation", "Bonjour Alice");
+        email.setAttempts(2);
+
+        dispatcher.sendBatch(List.of(email));
+
+        assertEquals(EmailStatus.FAILED, email.getStatus());
+        assertNotNull(email.getLastError());
+    }
+
+    @Test
+    void sendBatchTellsIdenticalMessagesApartWhenOnlyOneFails() {
+        JavaMailSender sender = mock(JavaMailSender.class);
+        when(sender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        doAnswer(invocation -> {
+            MimeMessage second = invocation.getArgument(1);
+            throw new MailSendException(Map.of(second, new MessagingException("Boîte pleine")));
+        }).when(sender).send(any(MimeMessage[].class));
+        EmailOutboxDispatcher failing = new EmailOutboxDispatcher(mongoTemplate, repository, sender);
+        ReflectionTestUtils.setField(failing, "fromEmail", "noreply@universite.tn");
+        ReflectionTestUtils.setField(failing, "maxAttempts", 3);
+        ReflectionTestUtils.setField(failing, "initialBackoff", Duration.ofSeconds(30));
+        OutboxEmail first = new OutboxEmail("alice@universite.tn", "Activation", "Bonjour Alice");
+        OutboxEmail second = new OutboxEmail("alice@universite.tn", "Activation", "Bonjour Alice");
+
+        int sent = failing.sendBatch(List.of(first, second));
+
+        assertEquals(1, sent);
+        assertEquals(EmailStatus.SENT, first.getStatus());
+        assertEquals(EmailStatus.PENDING, second.getStatus());
+        assertEquals("Boîte pleine", second.getLastError());
+    }
+
+    @Test
+    void purgeSentRemovesOnlySentEmailsPastRetention() {
+        ReflectionTestUtils.setField(dispatcher, "sentRetention", Duration.ofDays(7));
+        when(mongoTemplate.remove(any(Query.class), eq(OutboxEmail.class))).thenReturn(DeleteResult.acknowledged(4));
+
+        assertEquals(4, dispatcher.purgeSent());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(OutboxEmail.class));
+        assertEquals(EmailStatus.SENT, query.getValue().getQueryObject().get("status"));
+        assertTrue(query.getValue().getQueryObject().containsKey("sentAt"));
+    }
+
+    @Test
+    void ensureIndexesCreatesTheClaimIndex() {
+        IndexOperations indexOps = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(OutboxEmail.class)).thenReturn(indexOps);
+
+        dispatcher.ensureIndexes();
+
+        ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps).ensureIndex(index.capture());
+        assertEquals(new Document("status", 1).append("nextAttemptAt", 1), index.getValue().getIndexKeys());
+    }
+}
@@ -0,0 +1,32 @@
+package com.university.auth_service.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class LoginMetadataWriterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LoginMetadataWriter writer = new LoginMetadataWriter(mock(MongoTemplate.class), registry, 1000, 3);
+
+    @Test
+    void fullQueueDropsUsersWithTheOldestLogin() {
+        LocalDateTime now = LocalDateTime.now();
+        writer.recordLogin("alice", now);
+        writer.recordLogin("bob", now.plusSeconds(1));
+        writer.recordLogin("carol", now.plusSeconds(2));
+        // Nouvelle connexion d'alice : elle passe en fin de file, bob devient le plus ancien
+        writer.recordLogin("alice", now.plusSeconds(3));
+        writer.recordLogin("dave", now.plusSeconds(4));
+        writer.recordLogin("erin", now.plusSeconds(5));
+
+        assertEquals(3, writer.getQueueDepth());
+        assertEquals(2, registry.get("auth.login-metadata.dropped").counter().count());
+        assertEquals(3, registry.get("auth.login-metadata.queue").gauge().value());
+    }
+}
@@ -0,0 +1,114 @@
+package com.university;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Décodage d'un résultat de `size` cours à partir du BSON brut, lu d'un seul flux comme un lot de curseur :
+ * CoursCodec directement vers Cours, contre l'ancien chemin DocumentCodec puis copie champ par champ.
+ *
+ * Score en temps par résultat complet ; avec -prof gc, gc.alloc.rate.norm donne les octets alloués par résultat.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="CoursCodecBenchmark -f 1 -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoursCodecBenchmark {
+
+    private static final String[] JOURS = {"Lundi", "Mardi", "Mercredi", "Jeudi", "Vendredi"};
+
+    @Param({"10000"})
+    public int size;
+
+    private final CoursCodec coursCodec = new CoursCodec();
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+    // { batch: [ cours... ] }, comme le firstBatch d'une réponse find
+    private byte[] batch;
+
+    @Setup
+    public void encode() {
+        List<Document> documents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // Même forme que les documents de la collection : _id généré par MongoDB puis les champs du cours
+            Document doc = new Document("_id", new ObjectId())
+                    .append("idCours", i)
+                    .append("nomCours", "Cours " + i)
+                    .append("salle", "S" + (i % 40))
+                    .append("professeur", "Professeur " + (i % 120))
+                    .append("jour", JOURS[i % JOURS.length])
+                    .append("heureDebut", String.format("%02d:00", 8 + i % 10))
+                    .append("heureFin", String.format("%02d:30", 9 + i % 10));
+            documents.add(doc);
+        }
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(buffer), new Document("batch", documents),
+                EncoderContext.builder().build());
+        batch = buffer.toByteArray();
+    }
+
+    @Benchmark
+    public List<Cours> coursCodec() {
+        List<Cours> courses = new ArrayList<>(size);
+        try (BsonBinaryReader reader = openBatch()) {
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                courses.add(coursCodec.decode(reader, decoderContext));
+            }
+        }
+        return courses;
+    }
+
+    @Benchmark
+    public List<Cours> documentThenCopy() {
+        List<Cours> courses = new ArrayList<>(size);
+        try (BsonBinaryReader reader = openBatch()) {
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                Document doc = documentCodec.decode(reader, decoderContext);
+                courses.add(new Cours(
+                        doc.getInteger("idCours"),
+                        doc.getString("nomCours"),
+                        doc.getString("salle"),
+                        doc.getString("professeur"),
+                        doc.getString("jour"),
+                        doc.getString("heureDebut"),
+                        doc.getString("heureFin")));
+            }
+        }
+        return courses;
+    }
+
+    // Reader positionné sur le premier cours du tableau batch
+    private BsonBinaryReader openBatch() {
+        BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(batch));
+        reader.readStartDocument();
+        reader.readName("batch");
+        reader.readStartArray();
+        return reader;
+    }
+}
@@ -0,0 +1,120 @@
+package com.university;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.jws.WebMethod;
+import javax.jws.WebParam;
+import javax.jws.WebService;
+import javax.xml.ws.Endpoint;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Charge concurrente sur le HttpServer de Publisher : 32 clients SOAP simultanés contre un service dont
+ * chaque appel attend LATENCY_MS (comme un aller-retour MongoDB).
+ *
+ * executor=default : exécuteur par défaut du JDK, un seul thread traite les requêtes l'une après l'autre.
+ * executor=fixed : Publisher.createExecutor(), pool de COURSE_THREADS threads (32 par défaut).
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="PublisherLoad -f 1"
+ * (-Dcourse.threads=... dans -jvmArgs pour comparer plusieurs tailles de pool)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(32)
+@Fork(1)
+public class PublisherLoadBenchmark {
+
+    static final long LATENCY_MS = 20;
+
+    private static final byte[] REQUEST = ("<S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<S:Body><ns:getNomCours xmlns:ns=\"http://university.com/\"><id>12</id></ns:getNomCours>"
+            + "</S:Body></S:Envelope>").getBytes(StandardCharsets.UTF_8);
+
+    @Param({"default", "fixed"})
+    public String executor;
+
+    private HttpServer server;
+    private Endpoint endpoint;
+    private ExecutorService pool;
+    private URL url;
+
+    @Setup
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 128);
+        if ("fixed".equals(executor)) {
+            pool = Publisher.createExecutor();
+            server.setExecutor(pool);
+        }
+        endpoint = Publisher.publish(server, new SlowService(), new SoapRequestMetrics(pool));
+        server.start();
+        url = new URL("http://localhost:" + server.getAddress().getPort() + "/ws/courses");
+    }
+
+    @TearDown
+    public void stop() {
+        server.stop(0);
+        endpoint.stop();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public int soapCall() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "text/xml; charset=utf-8");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(REQUEST);
+        }
+        int status = connection.getResponseCode();
+        if (status != 200) {
+            throw new IllegalStateException("Réponse SOAP " + status);
+        }
+        // Corps lu jusqu'au bout : la connexion keep-alive peut être réutilisée
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                body.write(buffer, 0, n);
+            }
+            return body.size();
+        }
+    }
+
+    @WebService(targetNamespace = "http://university.com/")
+    public static class SlowService {
+
+        @WebMethod
+        public String getNomCours(@WebParam(name = "id") int id) throws InterruptedException {
+            Thread.sleep(LATENCY_MS);
+            return "Cours " + id;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.university;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification des conflits d'un nouveau cours contre un catalogue de `size` cours : TimetableIndex.conflictsWith
+ * contre un parcours linéaire de tout le catalogue (ce que ferait ajouterCours sans index), plus le coût
+ * d'un ajout puis d'un retrait dans l'index et un findConflicts complet.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="TimetableIndexBenchmark -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimetableIndexBenchmark {
+
+    private static final String[] JOURS = {"Lundi", "Mardi", "Mercredi", "Jeudi", "Vendredi", "Samedi"};
+
+    @Param({"100000"})
+    public int size;
+
+    private final List<Cours> catalog = new ArrayList<>();
+    private final TimetableIndex index = new TimetableIndex();
+    // Cours à vérifier, tirés comme le catalogue : une partie tombe en conflit, l'autre non
+    private final List<Cours> candidates = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void seed() {
+        Random random = new Random(42);
+        // Environ 8 cours par salle et par jour, 5 par professeur et par jour
+        int salles = Math.max(1, size / (JOURS.length * 8));
+        int professeurs = Math.max(1, size / (JOURS.length * 5));
+        for (int i = 0; i < size; i++) {
+            catalog.add(randomCours(random, i, salles, professeurs));
+        }
+        index.rebuild(catalog);
+        for (int i = 0; i < 1024; i++) {
+            candidates.add(randomCours(random, size + i, salles, professeurs));
+        }
+        // Les deux chemins doivent trouver les mêmes conflits, sinon la comparaison n'a pas de sens
+        for (Cours cours : candidates) {
+            if (index.conflictsWith(cours).size() != scan(cours).size()) {
+                throw new IllegalStateException("Index et parcours linéaire divergent pour le cours " + cours.getIdCours());
+            }
+        }
+    }
+
+    private static Cours randomCours(Random random, int id, int salles, int professeurs) {
+        int debut = 8 * 60 + 15 * random.nextInt(40);
+        int fin = debut + 60 + 30 * random.nextInt(4);
+        return new Cours(id, "Cours " + id, "S" + random.nextInt(salles), "P" + random.nextInt(professeurs),
+                JOURS[random.nextInt(JOURS.length)], heure(debut), heure(fin));
+    }
+
+    private static String heure(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private Cours nextCandidate() {
+        next = (next + 1) & (candidates.size() - 1);
+        return candidates.get(next);
+    }
+
+    @Benchmark
+    public List<ConflitCours> indexedCheck() {
+        return index.conflictsWith(nextCandidate());
+    }
+
+    @Benchmark
+    public List<ConflitCours> linearScan() {
+        return scan(nextCandidate());
+    }
+
+    private List<ConflitCours> scan(Cours cours) {
+        int debut = TimetableIndex.minutes(cours.getHeureDebut());
+        int fin = TimetableIndex.minutes(cours.getHeureFin());
+        List<ConflitCours> conflicts = new ArrayList<>();
+        for (Cours other : catalog) {
+            if (other.getIdCours() == cours.getIdCours() || !cours.getJour().equals(other.getJour())) {
+                continue;
+            }
+            int otherDebut = TimetableIndex.minutes(other.getHeureDebut());
+            int otherFin = TimetableIndex.minutes(other.getHeureFin());
+            if (otherDebut >= fin || debut >= otherFin) {
+                continue;
+            }
+            if (cours.getSalle().equals(other.getSalle())) {
+                conflicts.add(new ConflitCours(TimetableIndex.SALLE, cours.getJour(), cours.getSalle(),
+                        cours.getIdCours(), other.getIdCours()));
+            }
+            if (cours.getProfesseur().equals(other.getProfesseur())) {
+                conflicts.add(new ConflitCours(TimetableIndex.PROFESSEUR, cours.getJour(), cours.getProfesseur(),
+                        cours.getIdCours(), other.getIdCours()));
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Ajout puis retrait d'un cours : l'index reste identique d'une invocation à l'autre
+     */
+    @Benchmark
+    public void addThenRemove() {
+        Cours cours = nextCandidate();
+        index.add(cours);
+        index.remove(cours);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<ConflitCours> findConflicts() {
+        return index.findConflicts();
+    }
+}
@@ -0,0 +1,41 @@
+package com.university;
+
+/**
+ * Deux cours qui occupent la même salle ou le même professeur sur des créneaux qui se chevauchent.
+ * type vaut "salle" ou "professeur", ressource est le nom de la salle ou du professeur.
+ */
+public class ConflitCours {
+    private String type;
+    private String jour;
+    private String ressource;
+    private int idCours;
+    private int idCoursEnConflit;
+
+    // Constructeur vide nécessaire pour JAXB
+    public ConflitCours() {}
+
+    public ConflitCours(String type, String jour, String ressource, int idCours, int idCoursEnConflit) {
+        this.type = type;
+        this.jour = jour;
+        this.ressource = ressource;
+        this.idCours = idCours;
+        this.idCoursEnConflit = idCoursEnConflit;
+    }
+
+    public String getType() { return type; }
+    public String getJour() { return jour; }
+    public String getRessource() { return ressource; }
+    public int getIdCours() { return idCours; }
+    public int getIdCoursEnConflit() { return idCoursEnConflit; }
+
+    public void setType(String type) { this.type = type; }
+    public void setJour(String jour) { this.jour = jour; }
+    public void setRessource(String ressource) { this.ressource = ressource; }
+    public void setIdCours(int idCours) { this.idCours = idCours; }
+    public void setIdCoursEnConflit(int idCoursEnConflit) { this.idCoursEnConflit = idCoursEnConflit; }
+
+    @Override
+    public String toString() {
+        return type + " " + ressource + " le " + jour + " : cours " + idCours + " et " + idCoursEnConflit;
+    }
+}
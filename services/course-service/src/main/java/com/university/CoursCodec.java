@@ -0,0 +1,101 @@
+package com.university;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Lit et écrit Cours directement depuis le flux BSON, sans passer par un Document intermédiaire.
+ * Enregistré dans le registre de codecs du client par MongoConnection.
+ */
+public class CoursCodec implements Codec<Cours> {
+
+    @Override
+    public void encode(BsonWriter writer, Cours cours, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeInt32("idCours", cours.getIdCours());
+        writeString(writer, "nomCours", cours.getNomCours());
+        writeString(writer, "salle", cours.getSalle());
+        writeString(writer, "professeur", cours.getProfesseur());
+        writeString(writer, "jour", cours.getJour());
+        writeString(writer, "heureDebut", cours.getHeureDebut());
+        writeString(writer, "heureFin", cours.getHeureFin());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Cours decode(BsonReader reader, DecoderContext decoderContext) {
+        Cours cours = new Cours();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            switch (name) {
+                case "idCours":
+                    cours.setIdCours(readInt(reader));
+                    break;
+                case "nomCours":
+                    cours.setNomCours(readString(reader));
+                    break;
+                case "salle":
+                    cours.setSalle(readString(reader));
+                    break;
+                case "professeur":
+                    cours.setProfesseur(readString(reader));
+                    break;
+                case "jour":
+                    cours.setJour(readString(reader));
+                    break;
+                case "heureDebut":
+                    cours.setHeureDebut(readString(reader));
+                    break;
+                case "heureFin":
+                    cours.setHeureFin(readString(reader));
+                    break;
+                default:
+                    // _id et champs inconnus
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return cours;
+    }
+
+    @Override
+    public Class<Cours> getEncoderClass() {
+        return Cours.class;
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeString(name, value);
+        }
+    }
+
+    private static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    // Les documents insérés depuis le shell peuvent avoir un idCours en double ou en int64
+    private static int readInt(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return (int) reader.readInt64();
+            case DOUBLE:
+                return (int) reader.readDouble();
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.university;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Une page de cours triée par idCours. nextAfterId est le curseur de la page suivante,
+ * absent sur la dernière page.
+ */
+public class CoursPage {
+    private List<Cours> cours = new ArrayList<>();
+    private Integer nextAfterId;
+
+    // Constructeur vide nécessaire pour JAXB
+    public CoursPage() {}
+
+    public CoursPage(List<Cours> cours, Integer nextAfterId) {
+        this.cours = cours;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<Cours> getCours() { return cours; }
+    public Integer getNextAfterId() { return nextAfterId; }
+
+    public void setCours(List<Cours> cours) { this.cours = cours; }
+    public void setNextAfterId(Integer nextAfterId) { this.nextAfterId = nextAfterId; }
+}
@@ -0,0 +1,424 @@
+package com.university;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalogue des cours en mémoire : index par idCours et par jour, chargé au démarrage.
+ *
+ * Les lectures ne touchent pas MongoDB. ajouterCours / supprimerCours mettent le cache à jour
+ * aussitôt ; les modifications faites hors du service arrivent par change stream si MongoDB
+ * est en replica set, sinon par un rechargement complet toutes les COURSE_CACHE_POLL_MS.
+ *
+ * Chaque modification produit un nouveau snapshot : byId est recopié une fois par lot (putAll,
+ * removeAll, événements déjà reçus du change stream), seules les listes des jours touchés sont refaites.
+ */
+public class CourseCatalog implements CourseCatalogMXBean {
+
+    // Code renvoyé par un MongoDB autonome qui ne gère pas les change streams
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    // Seuls les champs de Cours sont lus depuis Mongo, plus _id pour reconnaître les suppressions
+    static final Bson COURS_FIELDS = Projections.include(
+            "_id", "idCours", "nomCours", "salle", "professeur", "jour", "heureDebut", "heureFin");
+    private static final CoursCodec COURS_CODEC = new CoursCodec();
+    private static final Comparator<Cours> BY_ID = Comparator.comparingInt(Cours::getIdCours);
+
+    private final MongoConnection mongo;
+    private final String collectionName;
+    private final long pollIntervalMillis;
+    private final Object writeLock = new Object();
+    // Suit chaque modification du catalogue, sous writeLock
+    private final TimetableIndex timetable = new TimetableIndex();
+    // _id Mongo -> idCours : un événement de suppression ne donne que _id, sous writeLock
+    private final Map<BsonValue, Integer> idsByObjectId = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private volatile Snapshot snapshot;
+    private volatile long lastSyncAt;
+    private volatile boolean changeStreams = true;
+
+    public CourseCatalog(MongoConnection mongo, String collectionName) {
+        this.mongo = mongo;
+        this.collectionName = collectionName;
+        this.pollIntervalMillis = Settings.getLong("COURSE_CACHE_POLL_MS", 30000);
+    }
+
+    /**
+     * Lance le chargement et la synchronisation sur un thread dédié, sans bloquer le démarrage
+     */
+    public CourseCatalog start() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("com.university:type=CourseCatalog"));
+        } catch (Exception e) {
+            System.out.println("MBean CourseCatalog non enregistré : " + e.getMessage());
+        }
+        Thread thread = new Thread(this::synchronize, "course-catalog");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    public List<Cours> all() {
+        return new ArrayList<>(current().byId.values());
+    }
+
+    public List<Cours> byJour(String jour) {
+        List<Cours> list = current().byJour.get(jour);
+        return list == null ? new ArrayList<>() : new ArrayList<>(list);
+    }
+
+    public Cours byId(int id) {
+        return current().byId.get(id);
+    }
+
+    public CoursPage page(Integer afterId, int size) {
+        NavigableMap<Integer, Cours> byId = current().byId;
+        Collection<Cours> tail = afterId == null ? byId.values() : byId.tailMap(afterId, false).values();
+        List<Cours> list = new ArrayList<>(size);
+        for (Cours cours : tail) {
+            if (list.size() == size) {
+                return new CoursPage(list, list.get(size - 1).getIdCours());
+            }
+            list.add(cours);
+        }
+        return new CoursPage(list, null);
+    }
+
+    /**
+     * Cours du catalogue qui occupent la même salle ou le même professeur sur un créneau chevauchant
+     */
+    public List<ConflitCours> conflictsWith(Cours cours) {
+        current();
+        return timetable.conflictsWith(cours);
+    }
+
+    public List<ConflitCours> findConflicts() {
+        current();
+        return timetable.findConflicts();
+    }
+
+    public List<String> freeSalles(String jour, int debut, int fin) {
+        current();
+        return timetable.freeSalles(jour, debut, fin);
+    }
+
+    public List<String> freeProfesseurs(String jour, int debut, int fin) {
+        current();
+        return timetable.freeProfesseurs(jour, debut, fin);
+    }
+
+    public List<int[]> freeRanges(String jour, String salle, String professeur, int debut, int fin) {
+        current();
+        return timetable.freeRanges(jour, salle, professeur, debut, fin);
+    }
+
+    /**
+     * Après une écriture réussie dans MongoDB
+     */
+    public void put(Cours cours) {
+        putAll(Collections.singletonList(cours));
+    }
+
+    public void putAll(Collection<Cours> cours) {
+        Map<Integer, Cours> changes = new LinkedHashMap<>();
+        for (Cours c : cours) {
+            changes.put(c.getIdCours(), c);
+        }
+        update(changes);
+    }
+
+    public void remove(int id) {
+        removeAll(Collections.singletonList(id));
+    }
+
+    public void removeAll(Collection<Integer> ids) {
+        Map<Integer, Cours> changes = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            changes.put(id, null);
+        }
+        update(changes);
+    }
+
+    /**
+     * Applique un lot de modifications (valeur null : suppression) en un seul nouveau snapshot.
+     * Les modifications déjà présentes dans le catalogue sont ignorées sans recopie.
+     */
+    private void update(Map<Integer, Cours> changes) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            TreeMap<Integer, Cours> byId = null;
+            Map<String, List<Cours>> byJour = null;
+            Set<String> jours = new HashSet<>();
+            for (Map.Entry<Integer, Cours> change : changes.entrySet()) {
+                Cours cours = change.getValue();
+                Cours previous = (byId == null ? current.byId : byId).get(change.getKey());
+                if (cours == null ? previous == null : same(cours, previous)) {
+                    continue;
+                }
+                if (byId == null) {
+                    byId = new TreeMap<>(current.byId);
+                    byJour = new HashMap<>(current.byJour);
+                }
+                if (previous != null) {
+                    byId.remove(previous.getIdCours());
+                    timetable.remove(previous);
+                    jour(byJour, jours, previous.getJour()).remove(previous);
+                }
+                if (cours != null) {
+                    byId.put(cours.getIdCours(), cours);
+                    timetable.add(cours);
+                    jour(byJour, jours, cours.getJour()).add(cours);
+                }
+            }
+            if (byId == null) {
+                return;
+            }
+            for (String jour : jours) {
+                List<Cours> list = byJour.get(jour);
+                if (list.isEmpty()) {
+                    byJour.remove(jour);
+                } else {
+                    list.sort(BY_ID);
+                }
+            }
+            snapshot = new Snapshot(byId, byJour);
+        }
+    }
+
+    /**
+     * Liste du jour dans le snapshot en construction, recopiée au premier changement qui la touche
+     */
+    private static List<Cours> jour(Map<String, List<Cours>> byJour, Set<String> jours, String jour) {
+        if (jours.add(jour)) {
+            List<Cours> list = byJour.get(jour);
+            byJour.put(jour, list == null ? new ArrayList<>() : new ArrayList<>(list));
+        }
+        return byJour.get(jour);
+    }
+
+    private static boolean same(Cours a, Cours b) {
+        return b != null && a.getIdCours() == b.getIdCours()
+                && Objects.equals(a.getNomCours(), b.getNomCours())
+                && Objects.equals(a.getSalle(), b.getSalle())
+                && Objects.equals(a.getProfesseur(), b.getProfesseur())
+                && Objects.equals(a.getJour(), b.getJour())
+                && Objects.equals(a.getHeureDebut(), b.getHeureDebut())
+                && Objects.equals(a.getHeureFin(), b.getHeureFin());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+        // Pas encore chargé (MongoDB absent au démarrage) : lecture directe
+        misses.incrementAndGet();
+        return reload();
+    }
+
+    private Snapshot reload() {
+        synchronized (writeLock) {
+            TreeMap<Integer, Cours> byId = new TreeMap<>();
+            idsByObjectId.clear();
+            for (RawBsonDocument document : mongo.collection(collectionName, RawBsonDocument.class)
+                    .find().projection(COURS_FIELDS)) {
+                Cours cours = document.decode(COURS_CODEC);
+                byId.put(cours.getIdCours(), cours);
+                idsByObjectId.put(document.get("_id"), cours.getIdCours());
+            }
+            Snapshot loaded = Snapshot.of(byId);
+            timetable.rebuild(byId.values());
+            snapshot = loaded;
+            lastSyncAt = System.currentTimeMillis();
+            reloads.incrementAndGet();
+            return loaded;
+        }
+    }
+
+    private void synchronize() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (changeStreams) {
+                    watch();
+                } else {
+                    reload();
+                    Thread.sleep(pollIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+                    changeStreams = false;
+                    System.out.println("Change streams indisponibles (MongoDB autonome), catalogue rechargé toutes les "
+                            + pollIntervalMillis + " ms");
+                } else {
+                    pause(e);
+                }
+            } catch (Exception e) {
+                pause(e);
+            }
+        }
+    }
+
+    /**
+     * Ouvre le change stream avant de recharger, pour ne perdre aucune modification entre les deux
+     */
+    private void watch() {
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Cours>> cursor =
+                     courses().watch().fullDocument(FullDocument.UPDATE_LOOKUP).cursor()) {
+            reload();
+            List<ChangeStreamDocument<Cours>> changes = new ArrayList<>();
+            while (cursor.hasNext()) {
+                // Les événements déjà reçus (un lot inséré ou supprimé ailleurs) sont appliqués ensemble
+                changes.add(cursor.next());
+                while (cursor.available() > 0) {
+                    changes.add(cursor.next());
+                }
+                apply(changes);
+                changes.clear();
+            }
+        }
+    }
+
+    /**
+     * Les échos des écritures du service (déjà dans le catalogue) ne changent rien : update les ignore
+     */
+    private void apply(List<ChangeStreamDocument<Cours>> changes) {
+        synchronized (writeLock) {
+            Map<Integer, Cours> updates = new LinkedHashMap<>();
+            for (ChangeStreamDocument<Cours> change : changes) {
+                OperationType type = change.getOperationType();
+                Cours cours = change.getFullDocument();
+                BsonValue objectId = change.getDocumentKey() == null ? null : change.getDocumentKey().get("_id");
+                if ((type == OperationType.INSERT || type == OperationType.REPLACE || type == OperationType.UPDATE)
+                        && cours != null) {
+                    Integer previousId = objectId == null ? null : idsByObjectId.put(objectId, cours.getIdCours());
+                    if (previousId != null && previousId != cours.getIdCours()) {
+                        // idCours modifié : l'ancienne entrée disparaît
+                        updates.put(previousId, null);
+                    }
+                    updates.put(cours.getIdCours(), cours);
+                } else if (type == OperationType.DELETE && objectId != null) {
+                    // _id inconnu : document jamais chargé, rien à retirer
+                    Integer id = idsByObjectId.remove(objectId);
+                    if (id != null) {
+                        updates.put(id, null);
+                    }
+                } else if (type == OperationType.UPDATE || type == OperationType.REPLACE) {
+                    // Document supprimé avant la lecture du fullDocument : sa suppression suit dans le flux
+                    continue;
+                } else {
+                    // Collection supprimée ou renommée : rechargement complet
+                    reload();
+                    updates.clear();
+                }
+            }
+            update(updates);
+            lastSyncAt = System.currentTimeMillis();
+        }
+    }
+
+    private void pause(Exception e) {
+        System.out.println("Synchronisation du catalogue interrompue, reprise dans " + pollIntervalMillis + " ms : "
+                + e.getMessage());
+        try {
+            Thread.sleep(pollIntervalMillis);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private MongoCollection<Cours> courses() {
+        return mongo.collection(collectionName, Cours.class);
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    @Override
+    public int getSize() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.byId.size();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getReloads() {
+        return reloads.get();
+    }
+
+    @Override
+    public String getSyncMode() {
+        return changeStreams ? "change-stream" : "polling";
+    }
+
+    @Override
+    public long getMillisSinceLastSync() {
+        return lastSyncAt == 0 ? -1 : System.currentTimeMillis() - lastSyncAt;
+    }
+
+    /**
+     * Vue immuable du catalogue, remplacée en bloc à chaque modification
+     */
+    private static final class Snapshot {
+        final NavigableMap<Integer, Cours> byId;
+        final Map<String, List<Cours>> byJour;
+
+        Snapshot(TreeMap<Integer, Cours> byId, Map<String, List<Cours>> byJour) {
+            this.byId = Collections.unmodifiableNavigableMap(byId);
+            this.byJour = byJour;
+        }
+
+        static Snapshot of(TreeMap<Integer, Cours> byId) {
+            Map<String, List<Cours>> byJour = new HashMap<>();
+            for (Cours cours : byId.values()) {
+                byJour.computeIfAbsent(cours.getJour(), jour -> new ArrayList<>()).add(cours);
+            }
+            return new Snapshot(byId, byJour);
+        }
+    }
+}
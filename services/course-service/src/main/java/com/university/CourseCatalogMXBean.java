@@ -0,0 +1,24 @@
+package com.university;
+
+/**
+ * État du cache des cours exposé en JMX (com.university:type=CourseCatalog)
+ */
+public interface CourseCatalogMXBean {
+
+    boolean isLoaded();
+
+    int getSize();
+
+    long getHits();
+
+    /** Lectures arrivées avant le premier chargement, servies par un chargement immédiat */
+    long getMisses();
+
+    long getReloads();
+
+    /** "change-stream" si MongoDB est en replica set, sinon "polling" */
+    String getSyncMode();
+
+    /** Temps écoulé depuis la dernière synchronisation avec MongoDB (rechargement ou événement) */
+    long getMillisSinceLastSync();
+}
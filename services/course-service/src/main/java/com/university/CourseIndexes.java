@@ -0,0 +1,102 @@
+package com.university;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Index de la collection cours et vérification des plans d'exécution des requêtes fréquentes.
+ *
+ * Les lectures (par id, par jour, pagination) sont servies par CourseCatalog en mémoire : MongoDB ne reçoit
+ * que le chargement complet du catalogue, les insertions et les suppressions par idCours. Seul l'index unique
+ * sur idCours sert donc ces requêtes ; un index par jour, salle ou professeur ne ferait que ralentir les écritures.
+ */
+public final class CourseIndexes {
+
+    private CourseIndexes() {}
+
+    static List<IndexModel> indexes() {
+        return Collections.singletonList(
+                // supprimerCours, supprimerCoursBatch ; l'unicité refuse aussi les doublons à l'insertion
+                new IndexModel(Indexes.ascending("idCours"),
+                        new IndexOptions().name("idCours_unique").unique(true)));
+    }
+
+    // Index créés par les versions précédentes, inutiles depuis que les lectures passent par le catalogue
+    static final List<String> OBSOLETE = Arrays.asList(
+            "jour_heureDebut", "professeur_jour_heureDebut", "salle_jour_heureDebut");
+
+    /**
+     * Crée les index manquants (sans effet sur ceux qui existent déjà) puis vérifie les plans.
+     * Appelé à chaque fois que MongoDB redevient joignable, une base recréée retrouve donc ses index.
+     */
+    public static void ensureAndCheck(MongoCollection<Document> collection) {
+        ensure(collection);
+        checkQueryPlans(collection);
+    }
+
+    public static void ensure(MongoCollection<Document> collection) {
+        List<String> names = collection.createIndexes(indexes());
+        System.out.println("Index MongoDB vérifiés : " + names);
+        for (Document index : collection.listIndexes()) {
+            String name = index.getString("name");
+            if (OBSOLETE.contains(name)) {
+                collection.dropIndex(name);
+                System.out.println("Index MongoDB inutile supprimé : " + name);
+            }
+        }
+    }
+
+    /**
+     * Journalise un avertissement pour chaque requête fréquente dont le plan retenu parcourt toute la collection
+     */
+    public static void checkQueryPlans(MongoCollection<Document> collection) {
+        check(collection, "supprimerCours", Filters.eq("idCours", 0), null);
+    }
+
+    private static void check(MongoCollection<Document> collection, String query, Bson filter, Bson sort) {
+        Document explain = collection.find(filter).sort(sort).explain();
+        Object queryPlanner = explain.get("queryPlanner");
+        if (!(queryPlanner instanceof Document)) {
+            return;
+        }
+        Object winningPlan = ((Document) queryPlanner).get("winningPlan");
+        if (usesStage(winningPlan, "COLLSCAN")) {
+            System.out.println("ATTENTION : " + query + " parcourt toute la collection cours (COLLSCAN), index manquant ?");
+        } else if (sort != null && usesStage(winningPlan, "SORT")) {
+            System.out.println("ATTENTION : " + query + " trie en mémoire (SORT), l'index ne couvre pas le tri");
+        }
+    }
+
+    /**
+     * Cherche un étage du plan (et de ses sous-étages inputStage / inputStages / queryPlan)
+     */
+    static boolean usesStage(Object plan, String stage) {
+        if (plan instanceof Document) {
+            Document doc = (Document) plan;
+            if (stage.equals(doc.getString("stage"))) {
+                return true;
+            }
+            for (Object value : doc.values()) {
+                if (usesStage(value, stage)) {
+                    return true;
+                }
+            }
+        } else if (plan instanceof List) {
+            for (Object value : (List<?>) plan) {
+                if (usesStage(value, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -6,7 +6,10 @@ import javax.jws.WebParam;
 import javax.jws.WebResult;
 
 import com.mongodb.client.*;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
 import org.bson.Document;
 
 import java.util.ArrayList;
@@ -15,24 +18,61 @@ import java.util.List;
 @WebService
 public class CourseService {
 
-    private MongoCollection<Document> collection;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Au-delà, l'appelant découpe son import en plusieurs lots
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String COLLECTION = "cours";
+
+    private final MongoConnection mongo;
+    private final CourseCatalog catalog;
+    // Vérification des conflits et insertion sans qu'un autre ajout ne s'intercale
+    private final Object bookingLock = new Object();
 
-    // Constructeur : connexion MongoDB
     public CourseService() {
-        try {
-            MongoClient client = MongoClients.create("mongodb://localhost:27017");
-            MongoDatabase database = client.getDatabase("courseDB");
-            collection = database.getCollection("cours");
+        this(MongoConnection.fromEnvironment().start());
+    }
 
+    public CourseService(MongoConnection mongo) {
+        this.mongo = mongo;
+        this.catalog = new CourseCatalog(mongo, COLLECTION).start();
+        // Index (re)créés dès que MongoDB est joignable, sans bloquer le démarrage
+        mongo.onConnected(() -> CourseIndexes.ensureAndCheck(collection()));
+    }
 
+    private MongoCollection<Document> collection() {
+        return mongo.collection(COLLECTION);
+    }
 
-            System.out.println("MongoDB connecté !");
-        } catch (Exception e) {
-            System.out.println("MongoDB non disponible pour l'instant. Le service démarre quand même.");
-            collection = null;
+    // Lectures et écritures de Cours via CoursCodec
+    private MongoCollection<Cours> courses() {
+        return mongo.collection(COLLECTION, Cours.class);
+    }
+
+    private static int minutes(String heure) {
+        int minutes = TimetableIndex.minutes(heure);
+        if (minutes < 0) {
+            throw new IllegalArgumentException("Heure invalide, format HH:mm attendu : " + heure);
+        }
+        return minutes;
+    }
+
+    private static void checkRange(int debut, int fin) {
+        if (debut >= fin || fin > 24 * 60) {
+            throw new IllegalArgumentException("Plage horaire invalide : heureDebut doit précéder heureFin, au plus 24:00");
         }
     }
 
+    private static String heure(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private static void checkBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Lot de " + size + " éléments, maximum " + MAX_BATCH_SIZE);
+        }
+    }
 
     // Ajouter un cours — CORRIGÉ AVEC RETURN
     @WebMethod
@@ -40,84 +80,194 @@ public class CourseService {
     public boolean ajouterCours(@WebParam(name="cours") Cours cours) {
 
         try {
-            Document doc = new Document("idCours", cours.getIdCours())
-                    .append("nomCours", cours.getNomCours())
-                    .append("salle", cours.getSalle())
-                    .append("professeur", cours.getProfesseur())
-                    .append("jour", cours.getJour())
-                    .append("heureDebut", cours.getHeureDebut())
-                    .append("heureFin", cours.getHeureFin());
-
-            collection.insertOne(doc);
+            if (!TimetableIndex.hasValidHours(cours)) {
+                System.out.println("Cours " + cours.getIdCours() + " refusé, horaire invalide : "
+                        + cours.getHeureDebut() + " - " + cours.getHeureFin());
+                return false;
+            }
+            synchronized (bookingLock) {
+                List<ConflitCours> conflicts = catalog.conflictsWith(cours);
+                if (!conflicts.isEmpty()) {
+                    System.out.println("Cours " + cours.getIdCours() + " refusé, créneau déjà pris : " + conflicts.get(0));
+                    return false;
+                }
+                courses().insertOne(cours);
+                catalog.put(cours);
+            }
             return true;   // ✔ SOAP UI affichera <return>true</return>
         } catch (Exception e) {
             return false;
         }
     }
 
-    // Obtenir tous les cours
+    // Ajouter plusieurs cours en un seul aller-retour.
+    // Insertion non ordonnée : un doublon ou un conflit de créneau n'empêche pas les autres ;
+    // le résultat i correspond au cours i.
     @WebMethod
-    public List<Cours> getCours() {
-        List<Cours> list = new ArrayList<>();
-
-        for (Document doc : collection.find()) {
-            Cours c = new Cours(
-                    doc.getInteger("idCours"),
-                    doc.getString("nomCours"),
-                    doc.getString("salle"),
-                    doc.getString("professeur"),
-                    doc.getString("jour"),
-                    doc.getString("heureDebut"),
-                    doc.getString("heureFin")
-            );
-            list.add(c);
+    @WebResult(name="return")
+    public List<Boolean> ajouterCoursBatch(@WebParam(name="cours") List<Cours> cours) {
+        List<Boolean> results = new ArrayList<>();
+        if (cours == null || cours.isEmpty()) {
+            return results;
+        }
+        checkBatchSize(cours.size());
+        synchronized (bookingLock) {
+            // Les cours du lot sont aussi comparés entre eux
+            TimetableIndex batch = new TimetableIndex();
+            List<Cours> accepted = new ArrayList<>(cours.size());
+            List<Integer> positions = new ArrayList<>(cours.size());
+            for (int i = 0; i < cours.size(); i++) {
+                Cours c = cours.get(i);
+                // Un horaire invalide échapperait à la détection des conflits : refusé
+                boolean free = TimetableIndex.hasValidHours(c)
+                        && catalog.conflictsWith(c).isEmpty() && batch.conflictsWith(c).isEmpty();
+                results.add(free);
+                if (free) {
+                    batch.add(c);
+                    accepted.add(c);
+                    positions.add(i);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return results;
+            }
+            try {
+                courses().insertMany(accepted, new InsertManyOptions().ordered(false));
+            } catch (MongoBulkWriteException e) {
+                for (BulkWriteError error : e.getWriteErrors()) {
+                    results.set(positions.get(error.getIndex()), false);
+                }
+            }
+            List<Cours> inserted = new ArrayList<>(positions.size());
+            for (int i : positions) {
+                if (results.get(i)) {
+                    inserted.add(cours.get(i));
+                }
+            }
+            catalog.putAll(inserted);
         }
-        return list;
+        return results;
+    }
+
+    // Supprimer plusieurs cours : le résultat i vaut true si le cours ids[i] existait et a été supprimé.
+    // Un deleteOne par id : le résultat vient de la suppression elle-même (une lecture préalable pouvait
+    // être contredite par une suppression concurrente) ; un id répété ou en échec donne false.
+    @WebMethod
+    @WebResult(name="return")
+    public List<Boolean> supprimerCoursBatch(@WebParam(name="ids") List<Integer> ids) {
+        List<Boolean> results = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return results;
+        }
+        checkBatchSize(ids.size());
+        List<Integer> deletedIds = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            boolean deleted = id != null && delete(id);
+            if (deleted) {
+                deletedIds.add(id);
+            }
+            results.add(deleted);
+        }
+        catalog.removeAll(deletedIds);
+        return results;
+    }
+
+    // Obtenir tous les cours (depuis le catalogue en mémoire)
+    @WebMethod
+    public List<Cours> getCours() {
+        return catalog.all();
     }
 
     // Obtenir les cours par jour
     @WebMethod
     public List<Cours> getCoursParJour(@WebParam(name="jour") String jour) {
-        List<Cours> list = new ArrayList<>();
-
-        for (Document doc : collection.find(Filters.eq("jour", jour))) {
-            Cours c = new Cours(
-                    doc.getInteger("idCours"),
-                    doc.getString("nomCours"),
-                    doc.getString("salle"),
-                    doc.getString("professeur"),
-                    doc.getString("jour"),
-                    doc.getString("heureDebut"),
-                    doc.getString("heureFin")
-            );
-            list.add(c);
-        }
-        return list;
+        return catalog.byJour(jour);
     }
 
     // Supprimer un cours par ID — CORRIGÉ AVEC RETURN
     @WebMethod
     @WebResult(name="return")
     public boolean supprimerCours(@WebParam(name="id") int id) {
-        long count = collection.deleteOne(Filters.eq("idCours", id)).getDeletedCount();
-        return count > 0;   // ✔ SOAP UI affichera <return>true</return>
+        try {
+            long count = courses().deleteOne(Filters.eq("idCours", id)).getDeletedCount();
+            catalog.remove(id);
+            return count > 0;   // ✔ SOAP UI affichera <return>true</return>
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // true seulement si ce deleteOne a effectivement supprimé le cours ; une erreur MongoDB donne false
+    private boolean delete(int id) {
+        try {
+            return courses().deleteOne(Filters.eq("idCours", id)).getDeletedCount() > 0;
+        } catch (Exception e) {
+            System.out.println("Suppression du cours " + id + " impossible : " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Tous les cours qui se chevauchent dans une même salle ou pour un même professeur
+    @WebMethod
+    @WebResult(name="return")
+    public List<ConflitCours> findConflicts() {
+        return catalog.findConflicts();
+    }
+
+    // Salles sans cours sur toute la plage [heureDebut, heureFin) du jour donné
+    @WebMethod
+    @WebResult(name="return")
+    public List<String> getSallesLibres(@WebParam(name="jour") String jour,
+                                        @WebParam(name="heureDebut") String heureDebut,
+                                        @WebParam(name="heureFin") String heureFin) {
+        int debut = minutes(heureDebut);
+        int fin = minutes(heureFin);
+        checkRange(debut, fin);
+        return catalog.freeSalles(jour, debut, fin);
+    }
+
+    // Professeurs sans cours sur toute la plage [heureDebut, heureFin) du jour donné
+    @WebMethod
+    @WebResult(name="return")
+    public List<String> getProfesseursLibres(@WebParam(name="jour") String jour,
+                                             @WebParam(name="heureDebut") String heureDebut,
+                                             @WebParam(name="heureFin") String heureFin) {
+        int debut = minutes(heureDebut);
+        int fin = minutes(heureFin);
+        checkRange(debut, fin);
+        return catalog.freeProfesseurs(jour, debut, fin);
+    }
+
+    // Plages libres à la fois pour la salle et le professeur (l'un des deux peut être absent),
+    // par défaut sur toute la journée
+    @WebMethod
+    @WebResult(name="return")
+    public List<Creneau> getCreneauxLibres(@WebParam(name="jour") String jour,
+                                           @WebParam(name="salle") String salle,
+                                           @WebParam(name="professeur") String professeur,
+                                           @WebParam(name="heureDebut") String heureDebut,
+                                           @WebParam(name="heureFin") String heureFin) {
+        int debut = heureDebut == null ? 0 : minutes(heureDebut);
+        int fin = heureFin == null ? 24 * 60 : minutes(heureFin);
+        checkRange(debut, fin);
+        List<Creneau> creneaux = new ArrayList<>();
+        for (int[] range : catalog.freeRanges(jour, salle, professeur, debut, fin)) {
+            creneaux.add(new Creneau(heure(range[0]), heure(range[1])));
+        }
+        return creneaux;
     }
 
     // Obtenir un cours par ID
     @WebMethod
     public Cours getCoursById(@WebParam(name="id") int id) {
-        Document doc = collection.find(Filters.eq("idCours", id)).first();
-
-        if (doc == null) return null;
-
-        return new Cours(
-                doc.getInteger("idCours"),
-                doc.getString("nomCours"),
-                doc.getString("salle"),
-                doc.getString("professeur"),
-                doc.getString("jour"),
-                doc.getString("heureDebut"),
-                doc.getString("heureFin")
-        );
+        return catalog.byId(id);
+    }
+
+    // Obtenir une page de cours triés par idCours.
+    // Pagination par curseur : afterId est le dernier idCours reçu (absent pour la première page).
+    @WebMethod
+    @WebResult(name="return")
+    public CoursPage getCoursPage(@WebParam(name="afterId") Integer afterId, @WebParam(name="limit") int limit) {
+        return catalog.page(afterId, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
 }
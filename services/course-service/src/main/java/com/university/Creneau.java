@@ -0,0 +1,23 @@
+package com.university;
+
+/**
+ * Plage horaire libre, heures au format HH:mm (heureFin exclue)
+ */
+public class Creneau {
+    private String heureDebut;
+    private String heureFin;
+
+    // Constructeur vide nécessaire pour JAXB
+    public Creneau() {}
+
+    public Creneau(String heureDebut, String heureFin) {
+        this.heureDebut = heureDebut;
+        this.heureFin = heureFin;
+    }
+
+    public String getHeureDebut() { return heureDebut; }
+    public String getHeureFin() { return heureFin; }
+
+    public void setHeureDebut(String heureDebut) { this.heureDebut = heureDebut; }
+    public void setHeureFin(String heureFin) { this.heureFin = heureFin; }
+}
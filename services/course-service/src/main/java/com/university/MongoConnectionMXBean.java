@@ -0,0 +1,22 @@
+package com.university;
+
+/**
+ * État de la connexion MongoDB exposé en JMX (com.university:type=MongoConnection).
+ * Les statistiques du pool sont publiées par le driver sous org.mongodb.driver:type=ConnectionPool.
+ */
+public interface MongoConnectionMXBean {
+
+    boolean isHealthy();
+
+    String getHosts();
+
+    String getDatabase();
+
+    int getPoolMaxSize();
+
+    long getLastPingMillis();
+
+    String getLastError();
+
+    long getReconnections();
+}
@@ -1,10 +1,95 @@
 package com.university;
 
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.ObjectName;
 import javax.xml.ws.Endpoint;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Publie le service SOAP sur un HttpServer créé explicitement, pour choisir l'exécuteur des requêtes.
+ *
+ * Pool de COURSE_THREADS threads, file de COURSE_QUEUE_SIZE requêtes ;
+ * quand la file est pleine, le thread d'acceptation traite lui-même la requête et cesse d'accepter,
+ * les connexions suivantes attendent dans le backlog TCP (COURSE_BACKLOG).
+ *
+ * Pas de threads virtuels : le service est compilé pour Java 8 et tourne sur une image Java 8.
+ */
 public class Publisher {
-    public static void main(String[] args) {
-        Endpoint.publish("http://localhost:9090/ws/courses", new CourseService());
-        System.out.println("Service SOAP lancé sur http://localhost:9090/ws/courses?wsdl");
+
+    private static final String PATH = "/ws/courses";
+
+    public static void main(String[] args) throws Exception {
+        String host = Settings.get("COURSE_HOST", "localhost");
+        int port = Settings.getInt("COURSE_PORT", 9090);
+        int backlog = Settings.getInt("COURSE_BACKLOG", 128);
+        int shutdownDelay = Settings.getInt("COURSE_SHUTDOWN_DELAY_SECONDS", 10);
+
+        MongoConnection mongo = MongoConnection.fromEnvironment().start();
+        ExecutorService executor = createExecutor();
+        SoapRequestMetrics metrics = new SoapRequestMetrics(executor);
+        registerMBean(metrics);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(host, port), backlog);
+        server.setExecutor(executor);
+        Endpoint endpoint = publish(server, new CourseService(mongo), metrics);
+        server.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Arrêt du service SOAP, requêtes en cours terminées sous " + shutdownDelay + " s");
+            // Plus de nouvelles connexions ; les échanges en cours ont shutdownDelay secondes pour finir
+            server.stop(shutdownDelay);
+            endpoint.stop();
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(shutdownDelay, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            mongo.close();
+        }, "soap-shutdown"));
+
+        System.out.println("Service SOAP lancé sur http://" + host + ":" + port + PATH + "?wsdl");
+    }
+
+    /**
+     * Publie le service sur PATH, derrière le filtre de métriques ; le serveur reste à démarrer
+     */
+    static Endpoint publish(HttpServer server, Object implementor, SoapRequestMetrics metrics) {
+        HttpContext context = server.createContext(PATH);
+        context.getFilters().add(metrics);
+        Endpoint endpoint = Endpoint.create(implementor);
+        endpoint.publish(context);
+        return endpoint;
+    }
+
+    static ExecutorService createExecutor() {
+        int threads = Settings.getInt("COURSE_THREADS", 32);
+        int queueSize = Settings.getInt("COURSE_QUEUE_SIZE", 256);
+        AtomicInteger counter = new AtomicInteger();
+        System.out.println("Requêtes SOAP traitées par " + threads + " threads (file de " + queueSize + ")");
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> new Thread(r, "soap-" + counter.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static void registerMBean(SoapRequestMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(metrics, new ObjectName("com.university:type=SoapRequests"));
+        } catch (Exception e) {
+            System.out.println("MBean SoapRequests non enregistré : " + e.getMessage());
+        }
     }
 }
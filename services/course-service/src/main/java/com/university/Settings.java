@@ -0,0 +1,26 @@
+package com.university;
+
+/**
+ * Lecture de la configuration : propriété système (-Dmongo.pool.max.size=...) puis variable
+ * d'environnement (MONGO_POOL_MAX_SIZE), sinon valeur par défaut.
+ */
+final class Settings {
+
+    private Settings() {}
+
+    static String get(String name, String defaultValue) {
+        String value = System.getProperty(name.toLowerCase().replace('_', '.'));
+        if (value == null || value.isEmpty()) {
+            value = System.getenv(name);
+        }
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    static int getInt(String name, int defaultValue) {
+        return Integer.parseInt(get(name, String.valueOf(defaultValue)));
+    }
+
+    static long getLong(String name, long defaultValue) {
+        return Long.parseLong(get(name, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,115 @@
+package com.university;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre HTTP qui mesure la durée de chaque appel SOAP
+ */
+public class SoapRequestMetrics extends Filter implements SoapRequestMetricsMXBean {
+
+    private static final long[] BOUNDS_MILLIS = {10, 50, 100, 500, 1000};
+
+    private final Executor executor;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BOUNDS_MILLIS.length + 1);
+
+    public SoapRequestMetrics(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long start = System.nanoTime();
+        active.incrementAndGet();
+        boolean failed = true;
+        try {
+            chain.doFilter(exchange);
+            failed = exchange.getResponseCode() >= 500;
+        } finally {
+            active.decrementAndGet();
+            record(System.nanoTime() - start, failed);
+        }
+    }
+
+    void record(long nanos, boolean failed) {
+        requests.incrementAndGet();
+        if (failed) {
+            errors.incrementAndGet();
+        }
+        totalNanos.addAndGet(nanos);
+        long max;
+        do {
+            max = maxNanos.get();
+        } while (nanos > max && !maxNanos.compareAndSet(max, nanos));
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BOUNDS_MILLIS.length && millis >= BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        histogram.incrementAndGet(bucket);
+    }
+
+    @Override
+    public String description() {
+        return "Durée des appels SOAP";
+    }
+
+    @Override
+    public long getRequests() {
+        return requests.get();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public int getActiveRequests() {
+        return active.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = requests.get();
+        return count == 0 ? 0 : totalNanos.get() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    @Override
+    public long[] getDurationHistogram() {
+        long[] copy = new long[histogram.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = histogram.get(i);
+        }
+        return copy;
+    }
+
+    @Override
+    public int getExecutorActiveThreads() {
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getActiveCount() : active.get();
+    }
+
+    @Override
+    public int getExecutorQueueSize() {
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getQueue().size() : 0;
+    }
+}
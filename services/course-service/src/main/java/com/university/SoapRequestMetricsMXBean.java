@@ -0,0 +1,24 @@
+package com.university;
+
+/**
+ * Statistiques des appels SOAP exposées en JMX (com.university:type=SoapRequests)
+ */
+public interface SoapRequestMetricsMXBean {
+
+    long getRequests();
+
+    long getErrors();
+
+    int getActiveRequests();
+
+    double getMeanMillis();
+
+    long getMaxMillis();
+
+    /** Nombre de requêtes par tranche de durée : &lt;10, &lt;50, &lt;100, &lt;500, &lt;1000 ms, puis au-delà */
+    long[] getDurationHistogram();
+
+    int getExecutorActiveThreads();
+
+    int getExecutorQueueSize();
+}
@@ -0,0 +1,326 @@
+package com.university;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Index des créneaux occupés, par (jour, salle) et par (jour, professeur).
+ *
+ * Chaque ressource garde ses cours triés par heure de début (en minutes depuis minuit) et la plus
+ * longue durée rencontrée : les cours qui peuvent chevaucher [début, fin) commencent forcément dans
+ * [début - dureeMax, fin), ce qui limite la recherche à O(log n + k). Les cours dont les heures ne
+ * sont pas au format HH:mm ne sont pas indexés (CourseService les refuse, voir hasValidHours).
+ *
+ * Chaque ressource a aussi un bitmap d'occupation (un bit par tranche de 5 minutes) : les questions de
+ * disponibilité se résolvent par intersection de bitmaps, sans parcourir les cours.
+ */
+class TimetableIndex {
+
+    static final String SALLE = "salle";
+    static final String PROFESSEUR = "professeur";
+
+    // Minutes par bit des bitmaps d'occupation : 288 créneaux par jour
+    static final int SLOT_MINUTES = 5;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    // jour -> salle (ou professeur) -> créneaux
+    private final Map<String, Map<String, Slots>> bySalle = new HashMap<>();
+    private final Map<String, Map<String, Slots>> byProfesseur = new HashMap<>();
+
+    synchronized void add(Cours cours) {
+        Interval interval = Interval.of(cours);
+        if (interval == null) {
+            return;
+        }
+        if (cours.getSalle() != null) {
+            slots(bySalle, cours.getJour(), cours.getSalle()).add(interval);
+        }
+        if (cours.getProfesseur() != null) {
+            slots(byProfesseur, cours.getJour(), cours.getProfesseur()).add(interval);
+        }
+    }
+
+    synchronized void remove(Cours cours) {
+        Interval interval = Interval.of(cours);
+        if (interval == null) {
+            return;
+        }
+        remove(bySalle, cours.getJour(), cours.getSalle(), interval);
+        remove(byProfesseur, cours.getJour(), cours.getProfesseur(), interval);
+    }
+
+    synchronized void rebuild(Collection<Cours> courses) {
+        bySalle.clear();
+        byProfesseur.clear();
+        for (Cours cours : courses) {
+            add(cours);
+        }
+    }
+
+    /**
+     * Cours déjà indexés qui occupent la même salle ou le même professeur sur un créneau qui chevauche celui-ci.
+     * Un cours portant le même idCours n'est pas considéré comme un conflit (remplacement).
+     */
+    synchronized List<ConflitCours> conflictsWith(Cours cours) {
+        List<ConflitCours> conflicts = new ArrayList<>();
+        Interval interval = Interval.of(cours);
+        if (interval == null) {
+            return conflicts;
+        }
+        collect(bySalle, SALLE, cours.getJour(), cours.getSalle(), interval, conflicts);
+        collect(byProfesseur, PROFESSEUR, cours.getJour(), cours.getProfesseur(), interval, conflicts);
+        return conflicts;
+    }
+
+    /**
+     * Tous les chevauchements du catalogue, en un seul balayage de chaque ressource triée par heure de début
+     */
+    synchronized List<ConflitCours> findConflicts() {
+        List<ConflitCours> conflicts = new ArrayList<>();
+        sweep(bySalle, SALLE, conflicts);
+        sweep(byProfesseur, PROFESSEUR, conflicts);
+        return conflicts;
+    }
+
+    /**
+     * Salles connues (tous jours confondus) sans aucun cours sur [debut, fin) ce jour-là
+     */
+    synchronized List<String> freeSalles(String jour, int debut, int fin) {
+        return free(bySalle, jour, debut, fin);
+    }
+
+    synchronized List<String> freeProfesseurs(String jour, int debut, int fin) {
+        return free(byProfesseur, jour, debut, fin);
+    }
+
+    /**
+     * Plages libres à la fois pour la salle et pour le professeur (l'un ou l'autre peut être null) entre
+     * debut et fin, en [début, fin) de minutes arrondies aux créneaux de SLOT_MINUTES
+     */
+    synchronized List<int[]> freeRanges(String jour, String salle, String professeur, int debut, int fin) {
+        BitSet occupied = new BitSet(SLOTS_PER_DAY);
+        Slots room = find(bySalle, jour, salle);
+        if (room != null) {
+            occupied.or(room.occupied);
+        }
+        Slots teacher = find(byProfesseur, jour, professeur);
+        if (teacher != null) {
+            occupied.or(teacher.occupied);
+        }
+        List<int[]> ranges = new ArrayList<>();
+        int first = firstSlot(debut);
+        int last = lastSlot(fin);
+        int free = occupied.nextClearBit(first);
+        while (free < last) {
+            int busy = Math.min(last, nextSetBit(occupied, free));
+            ranges.add(new int[]{free * SLOT_MINUTES, busy * SLOT_MINUTES});
+            free = occupied.nextClearBit(busy);
+        }
+        return ranges;
+    }
+
+    private static List<String> free(Map<String, Map<String, Slots>> index, String jour, int debut, int fin) {
+        BitSet wanted = new BitSet(SLOTS_PER_DAY);
+        wanted.set(firstSlot(debut), lastSlot(fin));
+        Map<String, Slots> day = index.get(jour);
+        TreeSet<String> names = new TreeSet<>();
+        for (Map<String, Slots> any : index.values()) {
+            names.addAll(any.keySet());
+        }
+        List<String> free = new ArrayList<>();
+        for (String name : names) {
+            Slots slots = day == null ? null : day.get(name);
+            if (slots == null || !slots.occupied.intersects(wanted)) {
+                free.add(name);
+            }
+        }
+        return free;
+    }
+
+    private static int nextSetBit(BitSet bits, int from) {
+        int next = bits.nextSetBit(from);
+        return next < 0 ? SLOTS_PER_DAY : next;
+    }
+
+    // Un cours de 08:02 à 09:58 occupe les créneaux 08:00 à 10:00 : l'arrondi se fait vers l'extérieur
+    private static int firstSlot(int minutes) {
+        return minutes / SLOT_MINUTES;
+    }
+
+    private static int lastSlot(int minutes) {
+        return Math.min(SLOTS_PER_DAY, (minutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+    }
+
+    private static void collect(Map<String, Map<String, Slots>> index, String type, String jour, String ressource,
+                                Interval interval, List<ConflitCours> conflicts) {
+        Slots slots = find(index, jour, ressource);
+        if (slots == null) {
+            return;
+        }
+        NavigableMap<Integer, List<Interval>> candidates =
+                slots.byStart.subMap(interval.start - slots.maxDuration, true, interval.end, false);
+        for (List<Interval> starting : candidates.values()) {
+            for (Interval other : starting) {
+                if (other.cours.getIdCours() != interval.cours.getIdCours() && other.overlaps(interval)) {
+                    conflicts.add(new ConflitCours(type, jour, ressource, interval.cours.getIdCours(),
+                            other.cours.getIdCours()));
+                }
+            }
+        }
+    }
+
+    private static void sweep(Map<String, Map<String, Slots>> index, String type, List<ConflitCours> conflicts) {
+        for (Slots slots : allSlots(index)) {
+            // Cours encore en cours à l'heure de début courante
+            List<Interval> active = new ArrayList<>();
+            for (List<Interval> starting : slots.byStart.values()) {
+                int start = starting.get(0).start;
+                active.removeIf(interval -> interval.end <= start);
+                for (Interval interval : starting) {
+                    for (Interval other : active) {
+                        Cours cours = interval.cours;
+                        String ressource = SALLE.equals(type) ? cours.getSalle() : cours.getProfesseur();
+                        conflicts.add(new ConflitCours(type, cours.getJour(), ressource,
+                                other.cours.getIdCours(), cours.getIdCours()));
+                    }
+                    active.add(interval);
+                }
+            }
+        }
+    }
+
+    private static void remove(Map<String, Map<String, Slots>> index, String jour, String ressource,
+                               Interval interval) {
+        Slots slots = find(index, jour, ressource);
+        if (slots != null && slots.remove(interval) && slots.byStart.isEmpty()) {
+            Map<String, Slots> day = index.get(jour);
+            day.remove(ressource);
+            if (day.isEmpty()) {
+                index.remove(jour);
+            }
+        }
+    }
+
+    private static Slots slots(Map<String, Map<String, Slots>> index, String jour, String ressource) {
+        return index.computeIfAbsent(jour, k -> new HashMap<>()).computeIfAbsent(ressource, k -> new Slots());
+    }
+
+    private static Slots find(Map<String, Map<String, Slots>> index, String jour, String ressource) {
+        Map<String, Slots> day = index.get(jour);
+        return day == null || ressource == null ? null : day.get(ressource);
+    }
+
+    private static List<Slots> allSlots(Map<String, Map<String, Slots>> index) {
+        List<Slots> all = new ArrayList<>();
+        for (Map<String, Slots> day : index.values()) {
+            all.addAll(day.values());
+        }
+        return all;
+    }
+
+    /**
+     * Vrai si les heures du cours sont au format HH:mm et que heureDebut précède heureFin :
+     * seuls ces cours peuvent être indexés, donc vérifiés contre les conflits
+     */
+    static boolean hasValidHours(Cours cours) {
+        return Interval.of(cours) != null;
+    }
+
+    /**
+     * "08:30" -> 510, -1 si l'heure n'est pas au format H:mm ou HH:mm ou hors de 00:00 - 24:00
+     */
+    static int minutes(String heure) {
+        if (heure == null) {
+            return -1;
+        }
+        int colon = heure.indexOf(':');
+        if (colon < 1 || colon > 2 || heure.length() != colon + 3) {
+            return -1;
+        }
+        try {
+            int hours = Integer.parseInt(heure.substring(0, colon));
+            int minutes = Integer.parseInt(heure.substring(colon + 1));
+            // De 00:00 à 24:00 inclus, 24:00 étant la fin de journée
+            if (hours < 0 || hours > 24 || minutes < 0 || minutes > 59 || (hours == 24 && minutes > 0)) {
+                return -1;
+            }
+            return hours * 60 + minutes;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Interval {
+        final Cours cours;
+        final int start;
+        final int end;
+
+        private Interval(Cours cours, int start, int end) {
+            this.cours = cours;
+            this.start = start;
+            this.end = end;
+        }
+
+        static Interval of(Cours cours) {
+            int start = minutes(cours.getHeureDebut());
+            int end = minutes(cours.getHeureFin());
+            if (start < 0 || end <= start) {
+                return null;
+            }
+            return new Interval(cours, start, end);
+        }
+
+        boolean overlaps(Interval other) {
+            return start < other.end && other.start < end;
+        }
+    }
+
+    private static final class Slots {
+        final TreeMap<Integer, List<Interval>> byStart = new TreeMap<>();
+        // Un bit par créneau de SLOT_MINUTES occupé par au moins un cours
+        final BitSet occupied = new BitSet(SLOTS_PER_DAY);
+        // Ne diminue pas quand un cours est retiré : la recherche reste correcte, un peu plus large
+        int maxDuration;
+
+        void add(Interval interval) {
+            byStart.computeIfAbsent(interval.start, k -> new ArrayList<>()).add(interval);
+            maxDuration = Math.max(maxDuration, interval.end - interval.start);
+            occupied.set(firstSlot(interval.start), lastSlot(interval.end));
+        }
+
+        boolean remove(Interval interval) {
+            List<Interval> starting = byStart.get(interval.start);
+            if (starting == null) {
+                return false;
+            }
+            boolean removed = false;
+            for (Iterator<Interval> it = starting.iterator(); it.hasNext(); ) {
+                if (it.next().cours.getIdCours() == interval.cours.getIdCours()) {
+                    it.remove();
+                    removed = true;
+                }
+            }
+            if (starting.isEmpty()) {
+                byStart.remove(interval.start);
+            }
+            if (removed) {
+                // Les créneaux peuvent être partagés avec d'autres cours : bitmap recalculé
+                occupied.clear();
+                for (List<Interval> remaining : byStart.values()) {
+                    for (Interval other : remaining) {
+                        occupied.set(firstSlot(other.start), lastSlot(other.end));
+                    }
+                }
+            }
+            return removed;
+        }
+    }
+}
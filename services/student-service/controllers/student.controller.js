@@ -11,6 +11,11 @@ const getStudent = async (req, res) => {
   try {
     const { id } = req.params;
     const student = await Student.findById(id);
+
+    if (!student) {
+      return res.status(404).json({ message: "Student not found" });
+    }
+
     res.status(200).json(student);
   } catch (error) {
     res.status(500).json({ message: error.message });
@@ -61,10 +66,12 @@ const deleteStudent = async (req, res) => {
 const updateStudentByCin = async (req, res) => {
   try {
     const { cin } = req.params;
+    // _id est immuable : on l'ignore s'il est renvoyé par le frontend
+    const { _id, ...updates } = req.body;
 
     const student = await Student.findOneAndUpdate(
       { cin: cin },
-      req.body,
+      updates,
       { new: true } // retourne l'étudiant mis à jour
     );
 
@@ -110,6 +117,27 @@ const getStudentByCin = async (req, res) => {
     res.status(500).json({ message: error.message });
   }
 };
+// Recherche combinée : un ObjectId (24 caractères hexadécimaux) peut être un _id ou un CIN,
+// tout autre identifiant est un CIN. Une seule requête Mongo dans les deux cas.
+const lookupStudent = async (req, res) => {
+  try {
+    const { id } = req.params;
+
+    const filter = /^[0-9a-fA-F]{24}$/.test(id)
+      ? { $or: [{ _id: id }, { cin: id }] }
+      : { cin: id };
+    const student = await Student.findOne(filter);
+
+    if (!student) {
+      return res.status(404).json({ message: "Student not found" });
+    }
+
+    res.status(200).json(student);
+
+  } catch (error) {
+    res.status(500).json({ message: error.message });
+  }
+};
 const getStudentByNomPrenom = async (req, res) => {
   try {
     const { nom, prenom } = req.query;
@@ -138,5 +166,6 @@ module.exports = {
   deleteStudentByCin,
   getStudentByCin,
   getStudentByNomPrenom,
+  lookupStudent,
 };
 
@@ -2,9 +2,10 @@ const express = require("express");
 const router =express.Router();
 const Student =require('../models/student.js');
 
-const {getStudents,getStudent, createStudent, updateStudent, deleteStudent,updateStudentByCin,deleteStudentByCin,getStudentByCin,getStudentByNomPrenom} =require('../controllers/student.controller.js');
+const {getStudents,getStudent, createStudent, updateStudent, deleteStudent,updateStudentByCin,deleteStudentByCin,getStudentByCin,getStudentByNomPrenom,lookupStudent} =require('../controllers/student.controller.js');
 router.get("/",getStudents);
 router.get("/search", getStudentByNomPrenom);
+router.get("/lookup/:id", lookupStudent);
 router.get("/:id", getStudent);
 
 router.post("/", createStudent);